@@ -0,0 +1,106 @@
+package main;
+
+import java.lang.management.*;
+
+/**
+ * Checks that a computer turn allocates nothing once the JIT has warmed up.
+ * <p>
+ * The computer thinks on fixed positions with a node limit, reading the thread's
+ * allocated bytes counter around each turn. After untimed warm-up rounds, every
+ * round's bytes are divided by the nodes it searched. Compiling and deoptimizing
+ * can now and then allocate a few bytes in any round, while an allocation in the
+ * engine shows up in all of them, so the lowest round is the one judged. The check
+ * fails, exiting with status 1, if that round allocated anything.
+ * <p>
+ * Usage: AllocationCheck [nodes per turn] [rounds]
+ *
+ * @author John Vnek
+ */
+public class AllocationCheck {
+
+	private static final long DEFAULT_NODES = 20000;
+	private static final int DEFAULT_ROUNDS = 10;
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int HASH_MB = 16;
+
+	/**
+	 * Positions thought on each round.
+	 */
+	private static final String[] POSITIONS = {
+		"r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/3P1N2/PPP2PPP/RNBQK2R b KQkq - 0 4",
+		"rnbqkb1r/ppp2ppp/4pn2/3p2B1/2PP4/2N5/PP2PPPP/R2QKBNR b KQkq - 3 4",
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+	};
+
+	/**
+	 * AllocationCheck is only run through main and is never instantiated.
+	 */
+	private AllocationCheck() {
+	}
+
+	/**
+	 * Runs check and prints bytes allocated per turn and per node of each round.
+	 *
+	 * @param args - optional nodes per turn and rounds
+	 */
+	public static void main(String[] args) {
+		long nodeLimit = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_NODES;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+			System.out.println("Thread allocated bytes are not available in this JVM");
+			System.exit(1);
+		}
+
+		Board[] boards = new Board[POSITIONS.length];
+		for (int i = 0; i < POSITIONS.length; i++) {
+			boards[i] = Board.fromFen(POSITIONS[i]);
+		}
+		ComputerPlayer player = new ComputerPlayer(false, HASH_MB);
+		player.setSearchDepth(Search.MAX_PLY);
+		player.setNodeLimit(nodeLimit);
+
+		long[] result = new long[2];
+		for (int round = 0; round < WARMUP_ROUNDS; round++) {
+			runRound(player, boards, threads, result);
+		}
+		System.out.printf("%d positions, %d nodes per turn, %d warm-up rounds%n", boards.length, nodeLimit, WARMUP_ROUNDS);
+		System.out.printf("%6s %12s %14s %12s%n", "round", "nodes", "bytes/turn", "bytes/node");
+		double lowest = Double.MAX_VALUE;
+		for (int round = 1; round <= rounds; round++) {
+			runRound(player, boards, threads, result);
+			double perNode = (double) result[0] / Math.max(1, result[1]);
+			lowest = Math.min(lowest, perNode);
+			System.out.printf("%6d %12d %14d %12.4f%n", round, result[1], result[0] / boards.length, perNode);
+		}
+
+		boolean passed = lowest == 0;
+		System.out.printf("Lowest %.4f bytes/node: %s%n", lowest, passed ? "ok" : "FAIL");
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Has player think once on every position from empty tables.
+	 *
+	 * @param player - computer player with a node limit
+	 * @param boards - positions, left as they were found
+	 * @param threads - thread bean reading allocated bytes
+	 * @param result - receives bytes allocated, then nodes searched
+	 */
+	private static void runRound(ComputerPlayer player, Board[] boards, com.sun.management.ThreadMXBean threads, long[] result) {
+		result[0] = 0;
+		result[1] = 0;
+		for (Board board : boards) {
+			player.clearTables();
+			player.startClock();
+			long before = threads.getCurrentThreadAllocatedBytes();
+			player.think(board);
+			result[0] += threads.getCurrentThreadAllocatedBytes() - before;
+			result[1] += player.getStats().getNodes();
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package main;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.stream.*;
+
+/**
+ * Generates the Bitbases tables by retrograde analysis.
+ * <p>
+ * Every placement of strong king, weak king and strong piece is classified, with either
+ * side to move. Checkmates and positions the strong side can no longer win (stalemate,
+ * the piece taken) are known first. Then each pass marks a position as won if the strong
+ * side to move has a move into a won position, or every move of the weak side to move
+ * leads into one. Each pass adds the positions one ply further from the end, so once
+ * a pass adds nothing every win has been found and the rest are draws.
+ * <p>
+ * A pass reads only the previous pass's results and writes each position once,
+ * so its positions are split across every core with no locking, and the
+ * result is the same whatever the number of threads. Generation works on
+ * bitboards alone and makes no Board objects.
+ * <p>
+ * Pawn promotions are looked up in the queen and rook tables, which must be
+ * generated first. Promoting to a knight or bishop never wins, so it is left out.
+ * <p>
+ * Usage: BitbaseGenerator [directory]
+ *
+ * @author John Vnek
+ */
+public class BitbaseGenerator {
+
+	private static final byte UNKNOWN = 0;
+	private static final byte WIN = 1;
+	private static final byte DRAW = 2;
+	private static final byte ILLEGAL = 3;
+
+	private int type;
+	private Bitbases promotions;
+	private int passes;
+
+	/**
+	 * Constructor for BitbaseGenerator.
+	 *
+	 * @param type - piece type of the strong side's piece, PAWN, ROOK or QUEEN
+	 * @param promotions - bitbases with the queen and rook tables, only read for pawns
+	 */
+	public BitbaseGenerator(int type, Bitbases promotions) {
+		this.type = type;
+		this.promotions = promotions;
+	}
+
+	/**
+	 * Generates every table into a directory, replacing any there, and reports the time each took.
+	 *
+	 * @param args - optional directory, Bitbases.DEFAULT_DIRECTORY if none
+	 * @throws IOException if a table cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		Path directory = Paths.get(args.length > 0 ? args[0] : Bitbases.DEFAULT_DIRECTORY);
+		Files.createDirectories(directory);
+		for (int type : Bitbases.TYPES) {
+			Files.deleteIfExists(directory.resolve(Bitbases.fileName(type)));
+		}
+		long start = System.nanoTime();
+		Bitbases bitbases = new Bitbases(directory);
+		System.out.printf("Generated %d tables in %d ms with %d threads%n", Bitbases.TYPES.length,
+				(System.nanoTime() - start) / 1000000L, Runtime.getRuntime().availableProcessors());
+		for (int type : Bitbases.TYPES) {
+			int strongWins = 0;
+			int weakLosses = 0;
+			for (int index = 0; index < Bitbases.POSITIONS / 2; index++) {
+				strongWins += bitbases.wins(type, index) ? 1 : 0;
+				weakLosses += bitbases.wins(type, index + Bitbases.POSITIONS / 2) ? 1 : 0;
+			}
+			System.out.printf("%s: %d wins with strong side to move, %d losses with weak side to move%n",
+					Bitbases.fileName(type), strongWins, weakLosses);
+		}
+	}
+
+	/**
+	 * Getter for passes the last generation took, the longest win in plies plus a few.
+	 *
+	 * @return number of passes
+	 */
+	public int getPasses() {
+		return passes;
+	}
+
+	/**
+	 * Classifies every position and packs the wins one bit per position, in Bitbases index order.
+	 *
+	 * @return packed table of Bitbases.POSITIONS bits
+	 */
+	public byte[] generate() {
+		byte[] current = new byte[Bitbases.POSITIONS];
+		byte[] next = new byte[Bitbases.POSITIONS];
+		IntStream.range(0, Bitbases.POSITIONS).parallel().forEach(index -> current[index] = initial(index));
+		passes = 1;
+		int changed;
+		do {
+			byte[] previous = passes % 2 == 1 ? current : next;
+			byte[] updated = passes % 2 == 1 ? next : current;
+			changed = IntStream.range(0, Bitbases.POSITIONS).parallel().map(index -> {
+				updated[index] = previous[index] == UNKNOWN ? step(index, previous) : previous[index];
+				return updated[index] != previous[index] ? 1 : 0;
+			}).sum();
+			passes++;
+		} while (changed > 0);
+
+		byte[] result = passes % 2 == 1 ? current : next;
+		byte[] packed = new byte[Bitbases.POSITIONS / 8];
+		for (int index = 0; index < Bitbases.POSITIONS; index++) {
+			if (result[index] == WIN) {
+				packed[index >>> 3] |= 1 << (index & 7);
+			}
+		}
+		return packed;
+	}
+
+	/**
+	 * Classifies position before any pass, finding illegal positions, checkmates and draws.
+	 *
+	 * @param index - Bitbases index
+	 * @return ILLEGAL, WIN, DRAW or UNKNOWN
+	 */
+	private byte initial(int index) {
+		boolean strongToMove = index < Bitbases.POSITIONS / 2;
+		int strongKing = (index >>> 12) & 63;
+		int weakKing = (index >>> 6) & 63;
+		int piece = index & 63;
+		if (strongKing == weakKing || strongKing == piece || weakKing == piece
+				|| (Bitboards.kingAttacks(strongKing) & Bitboards.bit(weakKing)) != 0
+				|| (type == Piece.PAWN && (piece < 8 || piece >= 56))) {
+			return ILLEGAL;
+		}
+		long occupied = Bitboards.bit(strongKing) | Bitboards.bit(weakKing) | Bitboards.bit(piece);
+		if (strongToMove) {
+			return (Bitboards.attacks(type, true, piece, occupied) & Bitboards.bit(weakKing)) != 0 ? ILLEGAL : UNKNOWN;
+		}
+
+		long attacked = weakKingAttacks(strongKing, piece);
+		long escapes = Bitboards.kingAttacks(weakKing) & ~attacked;
+		if (escapes == 0) {
+			return (attacked & Bitboards.bit(weakKing)) != 0 ? WIN : DRAW;
+		}
+		return (escapes & Bitboards.bit(piece)) != 0 ? DRAW : UNKNOWN;
+	}
+
+	/**
+	 * Classifies position from the classification of the positions it leads to.
+	 *
+	 * @param index - Bitbases index of a position not yet known
+	 * @param previous - classification after the previous pass
+	 * @return WIN if now known to be won, UNKNOWN otherwise
+	 */
+	private byte step(int index, byte[] previous) {
+		int strongKing = (index >>> 12) & 63;
+		int weakKing = (index >>> 6) & 63;
+		int piece = index & 63;
+		if (index >= Bitbases.POSITIONS / 2) {
+			long escapes = Bitboards.kingAttacks(weakKing) & ~weakKingAttacks(strongKing, piece);
+			while (escapes != 0) {
+				int to = Bitboards.first(escapes);
+				escapes &= escapes - 1;
+				if (previous[Bitbases.index(true, strongKing, to, piece)] != WIN) {
+					return UNKNOWN;
+				}
+			}
+			return WIN;
+		}
+
+		long kingMoves = Bitboards.kingAttacks(strongKing) & ~Bitboards.kingAttacks(weakKing)
+				& ~Bitboards.bit(weakKing) & ~Bitboards.bit(piece);
+		while (kingMoves != 0) {
+			int to = Bitboards.first(kingMoves);
+			kingMoves &= kingMoves - 1;
+			if (previous[Bitbases.index(false, to, weakKing, piece)] == WIN) {
+				return WIN;
+			}
+		}
+
+		long occupied = Bitboards.bit(strongKing) | Bitboards.bit(weakKing);
+		if (type != Piece.PAWN) {
+			long pieceMoves = Bitboards.attacks(type, true, piece, occupied) & ~occupied;
+			while (pieceMoves != 0) {
+				int to = Bitboards.first(pieceMoves);
+				pieceMoves &= pieceMoves - 1;
+				if (previous[Bitbases.index(false, strongKing, weakKing, to)] == WIN) {
+					return WIN;
+				}
+			}
+			return UNKNOWN;
+		}
+
+		int push = piece + 8;
+		if ((occupied & Bitboards.bit(push)) != 0) {
+			return UNKNOWN;
+		}
+		if (push >= 56) {
+			int promoted = Bitbases.index(false, strongKing, weakKing, push);
+			return promotions.wins(Piece.QUEEN, promoted) || promotions.wins(Piece.ROOK, promoted) ? WIN : UNKNOWN;
+		}
+		if (previous[Bitbases.index(false, strongKing, weakKing, push)] == WIN) {
+			return WIN;
+		}
+		int doublePush = push + 8;
+		if (piece < 16 && (occupied & Bitboards.bit(doublePush)) == 0
+				&& previous[Bitbases.index(false, strongKing, weakKing, doublePush)] == WIN) {
+			return WIN;
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Getter for squares the weak king may not move to.
+	 * <p>
+	 * The weak king is left out of the occupied squares, so it cannot hide behind itself
+	 * from a rook or queen. The piece's own square only counts if its king guards it.
+	 *
+	 * @param strongKing - square of strong king
+	 * @param piece - square of strong piece
+	 * @return squares attacked by the strong side
+	 */
+	private long weakKingAttacks(int strongKing, int piece) {
+		long occupied = Bitboards.bit(strongKing) | Bitboards.bit(piece);
+		return Bitboards.kingAttacks(strongKing) | Bitboards.attacks(type, true, piece, occupied);
+	}
+}
@@ -0,0 +1,208 @@
+package main;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ * Win, draw or loss tables for king and pawn, rook or queen against a lone king.
+ * <p>
+ * Each table has one bit per placement of the three pieces and side to move, set if the
+ * side with the extra piece wins with best play. The lone king can never win, so that bit
+ * gives the result for either side to move. Positions are seen from the strong side as
+ * white; a black strong side is mirrored top to bottom before probing. A table is
+ * 64 KB, small enough to stay in cache while the search is in the ending.
+ * <p>
+ * Tables are generated by BitbaseGenerator the first time they are needed, written to a
+ * directory and memory-mapped from then on, so later starts only map them. Every process
+ * mapping the same files shares their pages, and probes only read the mapping, so any
+ * number of search threads may probe at once.
+ * <p>
+ * Positions with two kings alone, or a knight or bishop against a lone king, are draws
+ * without any table. The fifty-move counter is not taken into account.
+ *
+ * @author John Vnek
+ */
+public class Bitbases {
+
+	public static final int UNKNOWN = 0;
+	public static final int WIN = 1;
+	public static final int DRAW = 2;
+	public static final int LOSS = 3;
+
+	public static final int POSITIONS = 2 * 64 * 64 * 64;
+	public static final String DEFAULT_DIRECTORY = System.getProperty("chess.bitbases", "bitbases");
+
+	static final int[] TYPES = {Piece.QUEEN, Piece.ROOK, Piece.PAWN};
+
+	private static final String[] NAMES = {"KPK", "", "", "KRK", "KQK", ""};
+	private static final int EDGE_BONUS = 10;
+	private static final int KING_DISTANCE_BONUS = 5;
+	private static final int PAWN_RANK_BONUS = 20;
+
+	private static Bitbases shared;
+
+	private ByteBuffer[] tables;
+
+	/**
+	 * Constructor for Bitbases, mapping each table, generating and saving any the directory lacks.
+	 *
+	 * @param directory - directory of table files, created if missing
+	 * @throws IOException if a table can neither be read nor written
+	 */
+	public Bitbases(Path directory) throws IOException {
+		this.tables = new ByteBuffer[Piece.NUM_TYPES];
+		Files.createDirectories(directory);
+		for (int type : TYPES) {
+			Path path = directory.resolve(fileName(type));
+			if (!Files.isRegularFile(path) || Files.size(path) != POSITIONS / 8) {
+				long start = System.nanoTime();
+				BitbaseGenerator generator = new BitbaseGenerator(type, this);
+				byte[] table = generator.generate();
+				Path temporary = Files.createTempFile(directory, fileName(type), ".tmp");
+				Files.write(temporary, table);
+				Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				if (Log.INFO_ENABLED) {
+					Log.log(Log.INFO, "generated " + path + " in " + generator.getPasses() + " passes, "
+							+ (System.nanoTime() - start) / 1000000L + " ms");
+				}
+			}
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				tables[type] = channel.map(FileChannel.MapMode.READ_ONLY, 0, POSITIONS / 8);
+			}
+		}
+	}
+
+	/**
+	 * Getter for bitbases in DEFAULT_DIRECTORY, opened once and shared by every player in the process.
+	 *
+	 * @return shared bitbases, null if they could not be opened
+	 */
+	public static synchronized Bitbases getShared() {
+		if (shared == null) {
+			try {
+				shared = new Bitbases(Paths.get(DEFAULT_DIRECTORY));
+			} catch (IOException e) {
+				if (Log.INFO_ENABLED) {
+					Log.log(Log.INFO, "bitbases unavailable: " + e);
+				}
+			}
+		}
+		return shared;
+	}
+
+	/**
+	 * Looks up result of position with two kings and at most one other piece.
+	 *
+	 * @param board - chess board Object
+	 * @return WIN, DRAW or LOSS for the side to move, UNKNOWN if the position is not covered
+	 */
+	public int probe(Board board) {
+		long occupied = board.getOccupied();
+		int count = Bitboards.count(occupied);
+		if (count > 3) {
+			return UNKNOWN;
+		}
+		long whiteKing = board.getPieces(Piece.KING, true);
+		long blackKing = board.getPieces(Piece.KING, false);
+		if (whiteKing == 0 || blackKing == 0) {
+			return UNKNOWN;
+		} else if (count == 2) {
+			return DRAW;
+		}
+
+		boolean strong = Bitboards.count(board.getColorPieces(true)) == 2;
+		int type = Piece.PAWN;
+		while (type < Piece.KING && board.getPieces(type, strong) == 0) {
+			type++;
+		}
+		if (type == Piece.KNIGHT || type == Piece.BISHOP) {
+			return DRAW;
+		}
+		int flip = strong ? 0 : 56;
+		int strongKing = Bitboards.first(strong ? whiteKing : blackKing) ^ flip;
+		int weakKing = Bitboards.first(strong ? blackKing : whiteKing) ^ flip;
+		int piece = Bitboards.first(board.getPieces(type, strong)) ^ flip;
+		boolean strongToMove = board.isWhiteToMove() == strong;
+		if (!wins(type, index(strongToMove, strongKing, weakKing, piece))) {
+			return DRAW;
+		}
+		return strongToMove ? WIN : LOSS;
+	}
+
+	/**
+	 * Scores a won position for the strong side by how close it is to the end.
+	 * <p>
+	 * The tables only say who wins, so without this the search would see every winning
+	 * move as equal and could shuffle forever. Against a bare king it pays to drive the
+	 * king to the edge and bring the strong king close; with a pawn, to advance it. The
+	 * piece's material value is added, so promoting always looks like progress.
+	 *
+	 * @param board - chess board Object with a position probe found won or lost
+	 * @return bonus in hundredths of a pawn for the side that wins
+	 */
+	public static int progress(Board board) {
+		boolean strong = Bitboards.count(board.getColorPieces(true)) == 2;
+		int strongKing = Bitboards.first(board.getPieces(Piece.KING, strong));
+		int weakKing = Bitboards.first(board.getPieces(Piece.KING, !strong));
+		long pawn = board.getPieces(Piece.PAWN, strong);
+		if (pawn != 0) {
+			int square = Bitboards.first(pawn);
+			int rank = strong ? Bitboards.row(square) : 7 - Bitboards.row(square);
+			return Evaluation.material(Piece.PAWN) + PAWN_RANK_BONUS * rank
+					+ KING_DISTANCE_BONUS * (7 - distance(strongKing, square));
+		}
+		int type = board.getPieces(Piece.QUEEN, strong) != 0 ? Piece.QUEEN : Piece.ROOK;
+		int col = Bitboards.col(weakKing);
+		int row = Bitboards.row(weakKing);
+		int edge = Math.max(3 - col, col - 4) + Math.max(3 - row, row - 4);
+		return Evaluation.material(type) + EDGE_BONUS * edge
+				+ KING_DISTANCE_BONUS * (7 - distance(strongKing, weakKing));
+	}
+
+	/**
+	 * Getter for whether strong side wins position.
+	 *
+	 * @param type - piece type of strong side's piece
+	 * @param index - position index
+	 * @return true if won for the strong side
+	 */
+	boolean wins(int type, int index) {
+		return (tables[type].get(index >>> 3) & (1 << (index & 7))) != 0;
+	}
+
+	/**
+	 * Packs position into table index.
+	 *
+	 * @param strongToMove - true if the side with the extra piece is to move
+	 * @param strongKing - square of strong king, strong side playing up the board
+	 * @param weakKing - square of lone king
+	 * @param piece - square of strong piece
+	 * @return index between 0 and POSITIONS - 1
+	 */
+	static int index(boolean strongToMove, int strongKing, int weakKing, int piece) {
+		return (strongToMove ? 0 : 1) << 18 | strongKing << 12 | weakKing << 6 | piece;
+	}
+
+	/**
+	 * Getter for name of table file.
+	 *
+	 * @param type - piece type of strong side's piece
+	 * @return file name, such as KQK.bin
+	 */
+	static String fileName(int type) {
+		return NAMES[type] + ".bin";
+	}
+
+	/**
+	 * Counts king moves between two squares.
+	 *
+	 * @param from - first square
+	 * @param to - second square
+	 * @return distance, 0 to 7
+	 */
+	private static int distance(int from, int to) {
+		return Math.max(Math.abs(Bitboards.col(from) - Bitboards.col(to)), Math.abs(Bitboards.row(from) - Bitboards.row(to)));
+	}
+}
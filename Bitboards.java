@@ -0,0 +1,365 @@
+package main;
+
+/**
+ * Static helpers for working with 64-bit bitboards.
+ * <p>
+ * Squares are numbered 0 to 63 using square = row * 8 + col,
+ * so spot (0, 0) is bit 0 and spot (7, 7) is bit 63.
+ * <p>
+ * Attack sets for every piece type are precomputed when the class loads.
+ * Knight, king and pawn attacks are plain tables indexed by square.
+ * Rook and bishop attacks use magic bitboards: the blockers on a square's rays
+ * are multiplied by a magic number and shifted into an index of a table holding
+ * the attack set for that exact blocker pattern.
+ * The magic numbers below were found by trying sparse random numbers until one mapped
+ * every blocker pattern of a square without a harmful collision.
+ *
+ * @author John Vnek
+ */
+public final class Bitboards {
+
+	public static final long FILE_A = 0x0101010101010101L;
+	public static final long FILE_H = FILE_A << 7;
+	public static final long RANK_1 = 0xFFL;
+	public static final long RANK_8 = RANK_1 << 56;
+	
+	private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+	private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+	private static final int[][] KNIGHT_STEPS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+	
+	private static final long[] KNIGHT_ATTACKS = new long[64];
+	private static final long[] KING_ATTACKS = new long[64];
+	private static final long[][] PAWN_ATTACKS = new long[2][64];
+	private static final long[][] BETWEEN = new long[64][64];
+	
+	private static final long[] ROOK_MAGICS = {
+		0x0980008011400020L, 0x8340004410002000L, 0x0880200090008268L, 0x0080080080100004L,
+		0x8100110004020800L, 0x0300010004000822L, 0x08801A0029000080L, 0x8100050001204882L,
+		0x0844800081400320L, 0x0804402010004000L, 0x0108802003100480L, 0x5C00808010000800L,
+		0x0003001801001014L, 0x0002000200041008L, 0x0004008108042210L, 0x0105000100009042L,
+		0x0400808000400021L, 0xC100404010002000L, 0x0060008010002088L, 0x0400808008001000L,
+		0x4440808008000400L, 0x1002008004000280L, 0x40024400300D1248L, 0x0010020000408104L,
+		0x0101008200204200L, 0x8020002040005000L, 0x4100100080802000L, 0x4008006A80100280L,
+		0x0021008500100800L, 0x5000040080800200L, 0x0010040101000200L, 0x6140004200008104L,
+		0x4000400020800090L, 0x2020002080804000L, 0x0000408202002010L, 0x0080100501000820L,
+		0x0004040080800800L, 0xA01A800200800400L, 0x0014820104009008L, 0x0008004082000401L,
+		0x0029804004608010L, 0x0140002000818048L, 0x000C410420010014L, 0x0020100008008080L,
+		0x8000080004008080L, 0x0082008004008002L, 0x1002000801020004L, 0x0010848505620004L,
+		0x0000801840002080L, 0x2002010C80403200L, 0x9000114220010300L, 0x0001000820100100L,
+		0x000A800401080080L, 0xC001400410200801L, 0x4800480102300400L, 0x1000010040840200L,
+		0x0002800442162101L, 0x4000810010204202L, 0x0400201200084082L, 0x8200210004081001L,
+		0x1002001004200802L, 0x0005000208040001L, 0x0002002701AC0822L, 0x000010250184004AL
+	};
+	
+	private static final long[] BISHOP_MAGICS = {
+		0x4014700208012480L, 0x0220014200A10001L, 0x8108084040806120L, 0x200E0A02001A00C0L,
+		0x4442021080243000L, 0x4C00901008100050L, 0x0800821110404840L, 0x0000120222024003L,
+		0x008A08A041020200L, 0x000118460C0428A0L, 0x0000314B06020022L, 0x0804180481080025L,
+		0x0000340520004880L, 0x0440309004200008L, 0x2108084402A01000L, 0x0328024422082200L,
+		0xC21200C004310C00L, 0x460840040820C400L, 0x0010004A02720020L, 0x000800488A044044L,
+		0x0025000A9040000AL, 0x0009010600822104L, 0x0021040400821002L, 0x0801000A19010120L,
+		0x0004048210915000L, 0x0310222005242C05L, 0x00544800101C8010L, 0x2308080000820003L,
+		0x2008820004010401L, 0x0650110244208800L, 0x0009324401080802L, 0x01008022A6010C40L,
+		0x8081200804200940L, 0x300C040305200240L, 0x0002062200240800L, 0x2801400A00042200L,
+		0x14090104000202A0L, 0x05B0020080081048L, 0x0A10010910020880L, 0xC403020222060B00L,
+		0x260D301250402080L, 0x0000A80802088800L, 0x0001008041023000L, 0x0000020202016420L,
+		0x0008540502140400L, 0x0201101008400B80L, 0x0104104202000058L, 0x0002080101000031L,
+		0x4200A20120200004L, 0x0004208410090400L, 0x10A0182508088000L, 0x1814081420880800L,
+		0x1008810850340611L, 0x0081482248020610L, 0x0009080800940000L, 0x0060010240890800L,
+		0x048A920802080500L, 0x26000E9204900404L, 0x200002A080482200L, 0xAC8018422020A808L,
+		0x929A000440A50308L, 0x41801040826C0110L, 0x0140C01081010101L, 0xC0A0012206040EA0L
+	};
+	
+	private static final long[] ROOK_MASKS = new long[64];
+	private static final int[] ROOK_SHIFTS = new int[64];
+	private static final long[][] ROOK_TABLE = new long[64][];
+	
+	private static final long[] BISHOP_MASKS = new long[64];
+	private static final int[] BISHOP_SHIFTS = new int[64];
+	private static final long[][] BISHOP_TABLE = new long[64][];
+	
+	static {
+		for (int square = 0; square < 64; square++) {
+			int col = col(square);
+			int row = row(square);
+			
+			for (int[] step : KNIGHT_STEPS) {
+				KNIGHT_ATTACKS[square] |= offset(col + step[0], row + step[1]);
+			}
+			for (int i = -1; i <= 1; i++) {
+				for (int j = -1; j <= 1; j++) {
+					if (i != 0 || j != 0) {
+						KING_ATTACKS[square] |= offset(col + i, row + j);
+					}
+				}
+			}
+			PAWN_ATTACKS[0][square] = offset(col - 1, row + 1) | offset(col + 1, row + 1);
+			PAWN_ATTACKS[1][square] = offset(col - 1, row - 1) | offset(col + 1, row - 1);
+		}
+		
+		for (int square = 0; square < 64; square++) {
+			initMagic(square, ROOK_DIRECTIONS, ROOK_MAGICS[square], ROOK_MASKS, ROOK_SHIFTS, ROOK_TABLE);
+			initMagic(square, BISHOP_DIRECTIONS, BISHOP_MAGICS[square], BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_TABLE);
+		}
+		
+		for (int from = 0; from < 64; from++) {
+			long rook = rookAttacks(from, 0);
+			long bishop = bishopAttacks(from, 0);
+			for (int to = 0; to < 64; to++) {
+				long target = bit(to);
+				if ((rook & target) != 0) {
+					BETWEEN[from][to] = rookAttacks(from, target) & rookAttacks(to, bit(from));
+				} else if ((bishop & target) != 0) {
+					BETWEEN[from][to] = bishopAttacks(from, target) & bishopAttacks(to, bit(from));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Bitboards is a collection of static helpers and is never instantiated.
+	 */
+	private Bitboards() {
+	}
+
+	/**
+	 * Converts x and y coordinates to a square index.
+	 *
+	 * @param col - x coordinate of spot
+	 * @param row - y coordinate of spot
+	 * @return square index between 0 and 63
+	 */
+	public static int square(int col, int row) {
+		return (row << 3) | col;
+	}
+
+	/**
+	 * Getter for x coordinate of square.
+	 *
+	 * @param square - square index
+	 * @return x coordinate
+	 */
+	public static int col(int square) {
+		return square & 7;
+	}
+
+	/**
+	 * Getter for y coordinate of square.
+	 *
+	 * @param square - square index
+	 * @return y coordinate
+	 */
+	public static int row(int square) {
+		return square >>> 3;
+	}
+
+	/**
+	 * Returns bitboard with only the given square set.
+	 *
+	 * @param square - square index
+	 * @return single bit bitboard
+	 */
+	public static long bit(int square) {
+		return 1L << square;
+	}
+
+	/**
+	 * Returns index of lowest set square in bitboard.
+	 *
+	 * @param bitboard - non-empty bitboard
+	 * @return square index of lowest set bit
+	 */
+	public static int first(long bitboard) {
+		return Long.numberOfTrailingZeros(bitboard);
+	}
+
+	/**
+	 * Counts squares set in bitboard.
+	 *
+	 * @param bitboard - bitboard being counted
+	 * @return number of set squares
+	 */
+	public static int count(long bitboard) {
+		return Long.bitCount(bitboard);
+	}
+	
+	/**
+	 * Getter for squares a knight attacks.
+	 *
+	 * @param square - square of knight
+	 * @return attacked squares
+	 */
+	public static long knightAttacks(int square) {
+		return KNIGHT_ATTACKS[square];
+	}
+	
+	/**
+	 * Getter for squares a king attacks.
+	 *
+	 * @param square - square of king
+	 * @return attacked squares
+	 */
+	public static long kingAttacks(int square) {
+		return KING_ATTACKS[square];
+	}
+	
+	/**
+	 * Getter for squares a pawn attacks diagonally.
+	 *
+	 * @param isWhite - true for white pawn, false for black
+	 * @param square - square of pawn
+	 * @return attacked squares
+	 */
+	public static long pawnAttacks(boolean isWhite, int square) {
+		return PAWN_ATTACKS[isWhite ? 0 : 1][square];
+	}
+	
+	/**
+	 * Getter for squares a rook attacks given the occupied squares.
+	 *
+	 * @param square - square of rook
+	 * @param occupied - occupied squares
+	 * @return attacked squares, including the first blocker on each ray
+	 */
+	public static long rookAttacks(int square, long occupied) {
+		long blockers = occupied & ROOK_MASKS[square];
+		return ROOK_TABLE[square][(int) ((blockers * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+	}
+	
+	/**
+	 * Getter for squares a bishop attacks given the occupied squares.
+	 *
+	 * @param square - square of bishop
+	 * @param occupied - occupied squares
+	 * @return attacked squares, including the first blocker on each ray
+	 */
+	public static long bishopAttacks(int square, long occupied) {
+		long blockers = occupied & BISHOP_MASKS[square];
+		return BISHOP_TABLE[square][(int) ((blockers * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+	}
+	
+	/**
+	 * Getter for squares a queen attacks given the occupied squares.
+	 *
+	 * @param square - square of queen
+	 * @param occupied - occupied squares
+	 * @return attacked squares, including the first blocker on each ray
+	 */
+	public static long queenAttacks(int square, long occupied) {
+		return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+	}
+	
+	/**
+	 * Getter for squares any piece type attacks.
+	 *
+	 * @param type - piece type constant
+	 * @param isWhite - color of piece, only matters for pawns
+	 * @param square - square of piece
+	 * @param occupied - occupied squares
+	 * @return attacked squares
+	 */
+	public static long attacks(int type, boolean isWhite, int square, long occupied) {
+		switch (type) {
+		case Piece.PAWN:
+			return pawnAttacks(isWhite, square);
+		case Piece.KNIGHT:
+			return KNIGHT_ATTACKS[square];
+		case Piece.BISHOP:
+			return bishopAttacks(square, occupied);
+		case Piece.ROOK:
+			return rookAttacks(square, occupied);
+		case Piece.QUEEN:
+			return queenAttacks(square, occupied);
+		default:
+			return KING_ATTACKS[square];
+		}
+	}
+	
+	/**
+	 * Getter for squares strictly between two squares on the same row, column or diagonal.
+	 *
+	 * @param from - first square
+	 * @param to - second square
+	 * @return squares between, empty if squares are not aligned
+	 */
+	public static long between(int from, int to) {
+		return BETWEEN[from][to];
+	}
+	
+	/**
+	 * Returns bitboard for coordinates, or empty bitboard if off the board.
+	 *
+	 * @param col - x coordinate
+	 * @param row - y coordinate
+	 * @return single bit bitboard, or 0
+	 */
+	private static long offset(int col, int row) {
+		if (col < 0 || col > 7 || row < 0 || row > 7) {
+			return 0;
+		}
+		return bit(square(col, row));
+	}
+	
+	/**
+	 * Walks each ray from square, stopping after the first blocker.
+	 *
+	 * @param square - starting square
+	 * @param directions - x and y steps of each ray
+	 * @param occupied - occupied squares
+	 * @return squares reached
+	 */
+	private static long slide(int square, int[][] directions, long occupied) {
+		long attacks = 0;
+		for (int[] direction : directions) {
+			int col = col(square) + direction[0];
+			int row = row(square) + direction[1];
+			while (col >= 0 && col < 8 && row >= 0 && row < 8) {
+				long target = bit(square(col, row));
+				attacks |= target;
+				if ((occupied & target) != 0) {
+					break;
+				}
+				col += direction[0];
+				row += direction[1];
+			}
+		}
+		return attacks;
+	}
+	
+	/**
+	 * Fills in attack table for one square using its magic number.
+	 * <p>
+	 * The mask leaves out the last square of each ray since a blocker there changes nothing.
+	 * Every blocker pattern of the mask is walked, and its attack set stored at the slot
+	 * the magic number maps it to.
+	 *
+	 * @param square - square being set up
+	 * @param directions - ray directions of piece type
+	 * @param magic - magic number of square
+	 * @param masks - relevant blocker masks being filled
+	 * @param shifts - index shifts being filled
+	 * @param tables - attack tables being filled
+	 */
+	private static void initMagic(int square, int[][] directions, long magic, long[] masks, int[] shifts, long[][] tables) {
+		long edges = ((RANK_1 | RANK_8) & ~(RANK_1 << (8 * row(square))))
+				| ((FILE_A | FILE_H) & ~(FILE_A << col(square)));
+		long mask = slide(square, directions, 0) & ~edges;
+		int bits = count(mask);
+		long[] table = new long[1 << bits];
+		
+		long blockers = 0;
+		do {
+			int index = (int) ((blockers * magic) >>> (64 - bits));
+			long attacks = slide(square, directions, blockers);
+			if (table[index] != 0 && table[index] != attacks) {
+				throw new IllegalStateException("Bad magic number for square " + square);
+			}
+			table[index] = attacks;
+			blockers = (blockers - mask) & mask;
+		} while (blockers != 0);
+		
+		masks[square] = mask;
+		shifts[square] = 64 - bits;
+		tables[square] = table;
+	}
+}
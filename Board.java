@@ -1,5 +1,7 @@
 package main;
 
+import java.util.*;
+
 /**
  * Class for creating a chess board
  * 
@@ -10,6 +12,63 @@ public class Board {
 	private Spot[][] board;
 	private final int NUM_ROWS = 8;
 	private final int NUM_COLUMNS = 8;
+	private final int NUM_SQUARES = 64;
+	
+	public static final int WHITE_KINGSIDE = 1;
+	public static final int WHITE_QUEENSIDE = 2;
+	public static final int BLACK_KINGSIDE = 4;
+	public static final int BLACK_QUEENSIDE = 8;
+	public static final int NO_SQUARE = -1;
+	public static final String STARTING_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+	
+	public static final int CASTLE = 1;
+	public static final int EN_PASSANT = 2;
+	public static final int PROMOTION = 4;
+	
+	private static final int UNDO_CAPACITY = 1024;
+	private static final int SEE_KING_VALUE = 10000;
+	private static final int[] CASTLING_MASK = new int[64];
+	
+	static {
+		for (int i = 0; i < CASTLING_MASK.length; i++) {
+			CASTLING_MASK[i] = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+		}
+		CASTLING_MASK[Bitboards.square(0, 0)] &= ~WHITE_QUEENSIDE;
+		CASTLING_MASK[Bitboards.square(7, 0)] &= ~WHITE_KINGSIDE;
+		CASTLING_MASK[Bitboards.square(4, 0)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+		CASTLING_MASK[Bitboards.square(0, 7)] &= ~BLACK_QUEENSIDE;
+		CASTLING_MASK[Bitboards.square(7, 7)] &= ~BLACK_KINGSIDE;
+		CASTLING_MASK[Bitboards.square(4, 7)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+	}
+	
+	private long[] pieceBoards;
+	private long[] colorBoards;
+	private long occupied;
+	private Piece[] pieces;
+	
+	private long[] attacksFrom;
+	private int[] attackOwner;
+	private int[] attackCounts;
+	private long[] attackedBy;
+	
+	private boolean whiteToMove;
+	private int castling;
+	private int epSquare;
+	private int halfmoveClock;
+	private long hash;
+	private long pawnHash;
+	private int[] middlegameScores;
+	private int[] endgameScores;
+	private int phase;
+	
+	private int ply;
+	private int[] undoMoves;
+	private Piece[] undoMoved;
+	private Piece[] undoCaptured;
+	private int[] undoState;
+	private long[] undoHash;
+	private Piece[] promoted;
+	private int[] swapGains;
 	
 	/**
 	 * Constructor for board Object.
@@ -17,41 +76,180 @@ public class Board {
 	 * Sets up all the black and white pieces.
 	 */
 	public Board() {
-		board = new Spot[NUM_ROWS][NUM_COLUMNS];
-		board[0][0] = new Spot(0, 0, new Rook(true));
-		board[0][1] = new Spot(1, 0, new Knight(true));
-		board[0][2] = new Spot(2, 0, new Bishop(true));
-		board[0][3] = new Spot(3, 0, new Queen(true));
-		board[0][4] = new Spot(4, 0, new King(true));
-		board[0][5] = new Spot(5, 0, new Bishop(true));
-		board[0][6] = new Spot(6, 0, new Knight(true));
-		board[0][7] = new Spot(7, 0, new Rook(true));
+		this(false);
+		
+		setPiece(0, 0, new Rook(true));
+		setPiece(1, 0, new Knight(true));
+		setPiece(2, 0, new Bishop(true));
+		setPiece(3, 0, new Queen(true));
+		setPiece(4, 0, new King(true));
+		setPiece(5, 0, new Bishop(true));
+		setPiece(6, 0, new Knight(true));
+		setPiece(7, 0, new Rook(true));
 		
+		for (int i = 0; i < NUM_COLUMNS; i++) {
+			setPiece(i, 1, new Pawn(true));
+		}
 		
 		for (int i = 0; i < NUM_COLUMNS; i++) {
-			board[1][i] = new Spot(i, 1, new Pawn(true));
+			setPiece(i, 6, new Pawn(false));
 		}
 		
+		setPiece(0, 7, new Rook(false));
+		setPiece(1, 7, new Knight(false));
+		setPiece(2, 7, new Bishop(false));
+		setPiece(3, 7, new King(false));
+		setPiece(4, 7, new Queen(false));
+		setPiece(5, 7, new Bishop(false));
+		setPiece(6, 7, new Knight(false));
+		setPiece(7, 7, new Rook(false));
+		
+		castling = inferCastling();
+		hash = computeHash();
+	}
+	
+	/**
+	 * Constructor for an empty board Object.
+	 * <p>
+	 * The boolean parameter only distinguishes this constructor from the default one.
+	 * 
+	 * @param empty - unused marker
+	 */
+	private Board(boolean empty) {
+		pieceBoards = new long[2 * Piece.NUM_TYPES];
+		colorBoards = new long[2];
+		pieces = new Piece[NUM_SQUARES];
 		
-		for (int i = 2; i < NUM_ROWS - 2; i++) {
+		attacksFrom = new long[NUM_SQUARES];
+		attackOwner = new int[NUM_SQUARES];
+		attackCounts = new int[2 * NUM_SQUARES];
+		attackedBy = new long[2];
+		Arrays.fill(attackOwner, -1);
+		middlegameScores = new int[2];
+		endgameScores = new int[2];
+		
+		whiteToMove = true;
+		epSquare = NO_SQUARE;
+		
+		undoMoves = new int[UNDO_CAPACITY];
+		undoMoved = new Piece[UNDO_CAPACITY];
+		undoCaptured = new Piece[UNDO_CAPACITY];
+		undoState = new int[UNDO_CAPACITY];
+		undoHash = new long[UNDO_CAPACITY];
+		promoted = new Piece[UNDO_CAPACITY * 8];
+		swapGains = new int[NUM_SQUARES];
+		
+		board = new Spot[NUM_ROWS][NUM_COLUMNS];
+		for (int i = 0; i < NUM_ROWS; i++) {
 			for (int j = 0; j < NUM_COLUMNS; j++) {
-				board[i][j] = new Spot(j, i, null);
+				board[i][j] = new Spot(j, i, this);
 			}
 		}
+	}
+	
+	/**
+	 * Creates board from a position in Forsyth-Edwards Notation.
+	 * <p>
+	 * The halfmove clock and move number may be left out.
+	 * 
+	 * @param fen - position, such as STARTING_FEN
+	 * @return board set up in that position
+	 * @throws IllegalArgumentException if fen cannot be read
+	 */
+	public static Board fromFen(String fen) {
+		String[] fields = fen.trim().split("\\s+");
+		if (fields.length < 4) {
+			throw new IllegalArgumentException("FEN needs at least 4 fields: " + fen);
+		}
+		Board board = new Board(false);
 		
-		for (int i = 0; i < NUM_ROWS; i++) {
-			board[6][i] = new Spot(i, 6, new Pawn(false));
+		int row = 7;
+		int col = 0;
+		for (char c : fields[0].toCharArray()) {
+			if (c == '/') {
+				row--;
+				col = 0;
+			} else if (c >= '1' && c <= '8') {
+				col += c - '0';
+			} else {
+				int type = "pnbrqk".indexOf(Character.toLowerCase(c));
+				if (type < 0 || row < 0 || col > 7) {
+					throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
+				}
+				board.setPiece(col++, row, Piece.create(type, Character.isUpperCase(c)));
+			}
 		}
 		
+		board.whiteToMove = fields[1].equals("w");
+		for (char c : fields[2].toCharArray()) {
+			int right = "KQkq".indexOf(c);
+			if (right >= 0) {
+				board.castling |= 1 << right;
+			}
+		}
+		if (!fields[3].equals("-")) {
+			if (fields[3].length() != 2) {
+				throw new IllegalArgumentException("Bad en passant square in FEN: " + fen);
+			}
+			board.epSquare = Bitboards.square(fields[3].charAt(0) - 'a', fields[3].charAt(1) - '1');
+		}
+		try {
+			board.halfmoveClock = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Bad halfmove clock in FEN: " + fen, e);
+		}
+		board.hash = board.computeHash();
+		return board;
+	}
+	
+	/**
+	 * Constructor for a copy of another board.
+	 * 
+	 * @param other - board to copy
+	 */
+	public Board(Board other) {
+		this(false);
+		copyFrom(other);
+	}
+	
+	/**
+	 * Makes this board a copy of another, reusing this board's arrays.
+	 * <p>
+	 * Pieces are shared with the other board, since making moves never changes a piece.
+	 * The undo stack is copied too, so moves made before the copy can still be taken back.
+	 * 
+	 * @param other - board to copy
+	 */
+	public void copyFrom(Board other) {
+		while (undoMoves.length < other.undoMoves.length) {
+			growUndo();
+		}
+		System.arraycopy(other.pieceBoards, 0, pieceBoards, 0, pieceBoards.length);
+		System.arraycopy(other.colorBoards, 0, colorBoards, 0, colorBoards.length);
+		System.arraycopy(other.pieces, 0, pieces, 0, NUM_SQUARES);
+		System.arraycopy(other.attacksFrom, 0, attacksFrom, 0, NUM_SQUARES);
+		System.arraycopy(other.attackOwner, 0, attackOwner, 0, NUM_SQUARES);
+		System.arraycopy(other.attackCounts, 0, attackCounts, 0, attackCounts.length);
+		System.arraycopy(other.attackedBy, 0, attackedBy, 0, attackedBy.length);
+		occupied = other.occupied;
+		whiteToMove = other.whiteToMove;
+		castling = other.castling;
+		epSquare = other.epSquare;
+		halfmoveClock = other.halfmoveClock;
+		hash = other.hash;
+		pawnHash = other.pawnHash;
+		middlegameScores[0] = other.middlegameScores[0];
+		middlegameScores[1] = other.middlegameScores[1];
+		endgameScores[0] = other.endgameScores[0];
+		endgameScores[1] = other.endgameScores[1];
+		phase = other.phase;
 		
-		board[7][0] = new Spot(0, 7, new Rook(false));
-		board[7][1] = new Spot(1, 7, new Knight(false));
-		board[7][2] = new Spot(2, 7, new Bishop(false));		
-		board[7][3] = new Spot(3, 7, new King(false));
-		board[7][4] = new Spot(4, 7, new Queen(false));
-		board[7][5] = new Spot(5, 7, new Bishop(false));
-		board[7][6] = new Spot(6, 7, new Knight(false));
-		board[7][7] = new Spot(7, 7, new Rook(false));
+		ply = other.ply;
+		System.arraycopy(other.undoMoves, 0, undoMoves, 0, ply);
+		System.arraycopy(other.undoMoved, 0, undoMoved, 0, ply);
+		System.arraycopy(other.undoCaptured, 0, undoCaptured, 0, ply);
+		System.arraycopy(other.undoState, 0, undoState, 0, ply);
+		System.arraycopy(other.undoHash, 0, undoHash, 0, ply);
 	}
 	
 	/**
@@ -59,6 +257,9 @@ public class Board {
 	 * <p>
 	 * The col and row parameters are swapped when used on the array of Spot.
 	 * Does so because col == x and row == y coordinates.
+	 * <p>
+	 * Spots are a view of the bitboards, so reading or setting their piece
+	 * reads or updates the board itself.
 	 * 
 	 * @param col - x coordinate of spot
 	 * @param row - y coordinate of spot
@@ -77,6 +278,724 @@ public class Board {
 		return board;
 	}
 	
+	/**
+	 * Getter for piece at coordinates.
+	 * 
+	 * @param col - x coordinate of spot
+	 * @param row - y coordinate of spot
+	 * @return piece at (x, y), null if empty
+	 */
+	public Piece getPiece(int col, int row) {
+		return pieces[Bitboards.square(col, row)];
+	}
+	
+	/**
+	 * Getter for piece on square.
+	 * 
+	 * @param square - square index
+	 * @return piece on square, null if empty
+	 */
+	public Piece getPiece(int square) {
+		return pieces[square];
+	}
+	
+	/**
+	 * Places piece at coordinates, replacing whatever was there.
+	 * 
+	 * @param col - x coordinate of spot
+	 * @param row - y coordinate of spot
+	 * @param piece - piece to place, null to empty the spot
+	 */
+	public void setPiece(int col, int row, Piece piece) {
+		int square = Bitboards.square(col, row);
+		long changed = Bitboards.bit(square);
+		long affected = slidersReaching(changed);
+		
+		if (pieces[square] != null) {
+			removePiece(square);
+		}
+		if (piece != null) {
+			addPiece(square, piece);
+		}
+		refreshAttacks(affected | slidersReaching(changed) | changed);
+	}
+	
+	/**
+	 * Adds piece to empty square, updating bitboards and evaluation sums.
+	 * 
+	 * @param square - square index
+	 * @param piece - piece being added
+	 */
+	private void addPiece(int square, Piece piece) {
+		long bit = Bitboards.bit(square);
+		int index = piece.getIndex();
+		int color = piece.getIsWhite() ? 0 : 1;
+		pieces[square] = piece;
+		hash ^= Zobrist.piece(index, square);
+		if (piece.getType() == Piece.PAWN) {
+			pawnHash ^= Zobrist.piece(index, square);
+		}
+		pieceBoards[index] |= bit;
+		colorBoards[color] |= bit;
+		occupied |= bit;
+		middlegameScores[color] += Evaluation.middlegame(index, square);
+		endgameScores[color] += Evaluation.endgame(index, square);
+		phase += Evaluation.phase(piece.getType());
+	}
+	
+	/**
+	 * Removes piece from square, updating bitboards and evaluation sums.
+	 * 
+	 * @param square - square index
+	 * @return piece that was removed
+	 */
+	private Piece removePiece(int square) {
+		Piece piece = pieces[square];
+		long bit = Bitboards.bit(square);
+		int index = piece.getIndex();
+		int color = piece.getIsWhite() ? 0 : 1;
+		pieces[square] = null;
+		hash ^= Zobrist.piece(index, square);
+		if (piece.getType() == Piece.PAWN) {
+			pawnHash ^= Zobrist.piece(index, square);
+		}
+		pieceBoards[index] &= ~bit;
+		colorBoards[color] &= ~bit;
+		occupied &= ~bit;
+		middlegameScores[color] -= Evaluation.middlegame(index, square);
+		endgameScores[color] -= Evaluation.endgame(index, square);
+		phase -= Evaluation.phase(piece.getType());
+		return piece;
+	}
+	
+	/**
+	 * Getter for bitboard of one piece type and color.
+	 * 
+	 * @param type - piece type constant
+	 * @param isWhite - true for white pieces, false for black
+	 * @return bitboard of matching pieces
+	 */
+	public long getPieces(int type, boolean isWhite) {
+		return pieceBoards[Piece.index(type, isWhite)];
+	}
+	
+	/**
+	 * Getter for bitboard of all pieces of one color.
+	 * 
+	 * @param isWhite - true for white pieces, false for black
+	 * @return bitboard of that color's pieces
+	 */
+	public long getColorPieces(boolean isWhite) {
+		return colorBoards[isWhite ? 0 : 1];
+	}
+	
+	/**
+	 * Getter for bitboard of all occupied squares.
+	 * 
+	 * @return occupancy bitboard
+	 */
+	public long getOccupied() {
+		return occupied;
+	}
+	
+	/**
+	 * Grants castling rights for every king and rook still on their home squares.
+	 * 
+	 * @return castling rights bit set
+	 */
+	private int inferCastling() {
+		int rights = 0;
+		if (isPiece(4, 0, Piece.KING, true)) {
+			if (isPiece(7, 0, Piece.ROOK, true)) rights |= WHITE_KINGSIDE;
+			if (isPiece(0, 0, Piece.ROOK, true)) rights |= WHITE_QUEENSIDE;
+		}
+		if (isPiece(4, 7, Piece.KING, false)) {
+			if (isPiece(7, 7, Piece.ROOK, false)) rights |= BLACK_KINGSIDE;
+			if (isPiece(0, 7, Piece.ROOK, false)) rights |= BLACK_QUEENSIDE;
+		}
+		return rights;
+	}
+	
+	/**
+	 * Checks if a piece of given type and color is at coordinates.
+	 * 
+	 * @param col - x coordinate of spot
+	 * @param row - y coordinate of spot
+	 * @param type - piece type constant
+	 * @param isWhite - true for white, false for black
+	 * @return true if such a piece is there, false if not
+	 */
+	private boolean isPiece(int col, int row, int type, boolean isWhite) {
+		return (getPieces(type, isWhite) & Bitboards.bit(Bitboards.square(col, row))) != 0;
+	}
+	
+	/**
+	 * Makes move on the board, recording what is needed to take it back.
+	 * <p>
+	 * The piece captured is stored in the move once it is known,
+	 * which also covers en passant captures.
+	 * 
+	 * @param move - move being made
+	 */
+	public void makeMove(Move move) {
+		Spot start = move.getStart();
+		Spot end = move.getEnd();
+		int from = Bitboards.square(start.getX(), start.getY());
+		int to = Bitboards.square(end.getX(), end.getY());
+		makeMove(encodeMove(from, to, move.getPromotion()));
+		move.setPieceCaptured(undoCaptured[ply - 1]);
+	}
+	
+	/**
+	 * Packs move between two squares of the current position.
+	 * <p>
+	 * Castling, en passant and promotion are recognized from the piece moved.
+	 * 
+	 * @param from - square piece starts on
+	 * @param to - square piece ends on
+	 * @param promotion - piece type a pawn reaching the last row becomes
+	 * @return packed move
+	 */
+	public int encodeMove(int from, int to, int promotion) {
+		Piece moved = pieces[from];
+		int type = moved.getType();
+		int captured = pieces[to] == null ? PackedMove.NO_PIECE : pieces[to].getIndex();
+		int flags = 0;
+		
+		if (type == Piece.PAWN && to == epSquare && pieces[to] == null) {
+			flags = EN_PASSANT;
+			captured = Piece.index(Piece.PAWN, !moved.getIsWhite());
+		} else if (type == Piece.KING && Math.abs(to - from) == 2) {
+			flags = CASTLE;
+		}
+		
+		int row = Bitboards.row(to);
+		if (type == Piece.PAWN && (row == 0 || row == NUM_ROWS - 1)) {
+			flags |= PROMOTION;
+		} else {
+			promotion = 0;
+		}
+		return PackedMove.encode(from, to, moved.getIndex(), captured, promotion, flags);
+	}
+	
+	/**
+	 * Makes packed move, recording what is needed to take it back.
+	 * <p>
+	 * The undo stack and promoted pieces are preallocated or reused,
+	 * so making and taking back moves allocates nothing once warmed up.
+	 * 
+	 * @param move - packed move valid in the current position
+	 */
+	public void makeMove(int move) {
+		if (ply == undoMoves.length) {
+			growUndo();
+		}
+		
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		int flags = PackedMove.flags(move);
+		int capturedSquare = to;
+		if ((flags & EN_PASSANT) != 0) {
+			capturedSquare = whiteToMove ? to - 8 : to + 8;
+		}
+		
+		Piece moved = pieces[from];
+		Piece captured = pieces[capturedSquare];
+		long changed = changedSquares(from, to, capturedSquare, flags);
+		long affected = slidersReaching(changed);
+		
+		undoMoves[ply] = move;
+		undoMoved[ply] = moved;
+		undoCaptured[ply] = captured;
+		undoState[ply] = castling | ((epSquare + 1) << 4) | (halfmoveClock << 11);
+		undoHash[ply] = hash;
+		
+		if (captured != null) {
+			removePiece(capturedSquare);
+		}
+		removePiece(from);
+		
+		if ((flags & PROMOTION) != 0) {
+			addPiece(to, promotedPiece(PackedMove.promotion(move), moved.getIsWhite()));
+		} else {
+			addPiece(to, moved);
+		}
+		
+		if (flags == CASTLE) {
+			if (to > from) {
+				addPiece(from + 1, removePiece(from + 3));
+			} else {
+				addPiece(from - 1, removePiece(from - 4));
+			}
+		}
+		refreshAttacks(affected | slidersReaching(changed) | changed);
+		
+		int type = moved.getType();
+		hash ^= Zobrist.castling(castling) ^ Zobrist.enPassant(epSquare);
+		castling &= CASTLING_MASK[from] & CASTLING_MASK[to];
+		epSquare = (type == Piece.PAWN && Math.abs(to - from) == 16) ? (from + to) >> 1 : NO_SQUARE;
+		hash ^= Zobrist.castling(castling) ^ Zobrist.enPassant(epSquare) ^ Zobrist.side();
+		
+		halfmoveClock = (type == Piece.PAWN || captured != null) ? 0 : halfmoveClock + 1;
+		whiteToMove = !whiteToMove;
+		ply++;
+	}
+	
+	/**
+	 * Takes back the last move made, restoring the board exactly.
+	 */
+	public void unmakeMove() {
+		ply--;
+		int move = undoMoves[ply];
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		int flags = PackedMove.flags(move);
+		Piece captured = undoCaptured[ply];
+		
+		whiteToMove = !whiteToMove;
+		int capturedSquare = to;
+		if ((flags & EN_PASSANT) != 0) {
+			capturedSquare = whiteToMove ? to - 8 : to + 8;
+		}
+		long changed = changedSquares(from, to, capturedSquare, flags);
+		long affected = slidersReaching(changed);
+		
+		if (flags == CASTLE) {
+			if (to > from) {
+				addPiece(from + 3, removePiece(from + 1));
+			} else {
+				addPiece(from - 4, removePiece(from - 1));
+			}
+		}
+		
+		removePiece(to);
+		addPiece(from, undoMoved[ply]);
+		
+		if (captured != null) {
+			addPiece(capturedSquare, captured);
+		}
+		refreshAttacks(affected | slidersReaching(changed) | changed);
+		
+		int state = undoState[ply];
+		castling = state & 15;
+		epSquare = ((state >>> 4) & 127) - 1;
+		halfmoveClock = state >>> 11;
+		hash = undoHash[ply];
+		undoMoved[ply] = null;
+		undoCaptured[ply] = null;
+	}
+	
+	/**
+	 * Getter for last move made.
+	 * 
+	 * @return packed move on top of undo stack, NO_MOVE if none
+	 */
+	public int getLastMove() {
+		return ply == 0 ? PackedMove.NO_MOVE : undoMoves[ply - 1];
+	}
+	
+	/**
+	 * Gets piece a pawn promotes to at the current ply.
+	 * <p>
+	 * Each ply keeps one piece of each promotion type and color, created the first time it is needed.
+	 * A ply's piece is only on the board while that ply's move is made, so reusing it is safe.
+	 * 
+	 * @param type - promotion piece type
+	 * @param isWhite - color of promoting pawn
+	 * @return piece to place
+	 */
+	private Piece promotedPiece(int type, boolean isWhite) {
+		int index = ply * 8 + (isWhite ? 0 : 4) + (type - 1);
+		if (promoted[index] == null) {
+			promoted[index] = Piece.create(type, isWhite);
+		}
+		return promoted[index];
+	}
+	
+	/**
+	 * Gets squares whose occupancy a move changes.
+	 * 
+	 * @param from - square piece starts on
+	 * @param to - square piece ends on
+	 * @param capturedSquare - square of captured piece, differs from to for en passant
+	 * @param flags - CASTLE, EN_PASSANT and PROMOTION bits of move
+	 * @return bitboard of changed squares
+	 */
+	private long changedSquares(int from, int to, int capturedSquare, int flags) {
+		long changed = Bitboards.bit(from) | Bitboards.bit(to) | Bitboards.bit(capturedSquare);
+		if (flags == CASTLE) {
+			if (to > from) {
+				changed |= Bitboards.bit(from + 1) | Bitboards.bit(from + 3);
+			} else {
+				changed |= Bitboards.bit(from - 1) | Bitboards.bit(from - 4);
+			}
+		}
+		return changed;
+	}
+	
+	/**
+	 * Finds sliders whose rays reach any of the given squares.
+	 * <p>
+	 * These are the only pieces, besides ones on the squares themselves,
+	 * whose attacks change when the squares' occupancy changes.
+	 * 
+	 * @param squares - bitboard of squares
+	 * @return bitboard of squares holding those sliders
+	 */
+	private long slidersReaching(long squares) {
+		long queens = pieceBoards[Piece.QUEEN] | pieceBoards[Piece.QUEEN + Piece.NUM_TYPES];
+		long straight = pieceBoards[Piece.ROOK] | pieceBoards[Piece.ROOK + Piece.NUM_TYPES] | queens;
+		long diagonal = pieceBoards[Piece.BISHOP] | pieceBoards[Piece.BISHOP + Piece.NUM_TYPES] | queens;
+		
+		long sliders = 0;
+		while (squares != 0) {
+			int square = Bitboards.first(squares);
+			sliders |= Bitboards.rookAttacks(square, occupied) & straight;
+			sliders |= Bitboards.bishopAttacks(square, occupied) & diagonal;
+			squares &= squares - 1;
+		}
+		return sliders;
+	}
+	
+	/**
+	 * Recomputes attacks of the pieces on given squares and updates attack counts.
+	 * <p>
+	 * The old attack set stored for each square is taken away first,
+	 * so squares that became empty simply stop attacking.
+	 * 
+	 * @param squares - bitboard of squares to refresh
+	 */
+	private void refreshAttacks(long squares) {
+		while (squares != 0) {
+			int square = Bitboards.first(squares);
+			squares &= squares - 1;
+			
+			if (attackOwner[square] >= 0) {
+				countAttacks(attackOwner[square], attacksFrom[square], -1);
+			}
+			
+			Piece piece = pieces[square];
+			if (piece == null) {
+				attackOwner[square] = -1;
+				attacksFrom[square] = 0;
+			} else {
+				int color = piece.getIsWhite() ? 0 : 1;
+				long attacks = Bitboards.attacks(piece.getType(), piece.getIsWhite(), square, occupied);
+				attackOwner[square] = color;
+				attacksFrom[square] = attacks;
+				countAttacks(color, attacks, 1);
+			}
+		}
+	}
+	
+	/**
+	 * Adds to or takes from the attacker count of every square in an attack set.
+	 * 
+	 * @param color - 0 for white attacker, 1 for black
+	 * @param attacks - squares attacked
+	 * @param delta - 1 to add attacker, -1 to take it away
+	 */
+	private void countAttacks(int color, long attacks, int delta) {
+		int base = color * NUM_SQUARES;
+		while (attacks != 0) {
+			int square = Bitboards.first(attacks);
+			int count = attackCounts[base + square] += delta;
+			if (count == 0) {
+				attackedBy[color] &= ~Bitboards.bit(square);
+			} else if (count == 1 && delta > 0) {
+				attackedBy[color] |= Bitboards.bit(square);
+			}
+			attacks &= attacks - 1;
+		}
+	}
+	
+	/**
+	 * Checks if square is attacked by a color.
+	 * 
+	 * @param square - square index
+	 * @param byWhite - true to check white attackers, false for black
+	 * @return true if at least one piece attacks square
+	 */
+	public boolean isAttacked(int square, boolean byWhite) {
+		return (attackedBy[byWhite ? 0 : 1] & Bitboards.bit(square)) != 0;
+	}
+	
+	/**
+	 * Getter for number of pieces of a color attacking square.
+	 * 
+	 * @param square - square index
+	 * @param byWhite - true to count white attackers, false for black
+	 * @return attacker count
+	 */
+	public int getAttackerCount(int square, boolean byWhite) {
+		return attackCounts[(byWhite ? 0 : NUM_SQUARES) + square];
+	}
+	
+	/**
+	 * Getter for every square a color attacks.
+	 * 
+	 * @param byWhite - true for white, false for black
+	 * @return bitboard of attacked squares
+	 */
+	public long getAttackedSquares(boolean byWhite) {
+		return attackedBy[byWhite ? 0 : 1];
+	}
+	
+	/**
+	 * Gets pieces of both colors attacking square, given the occupied squares.
+	 * <p>
+	 * Passing an occupancy with pieces taken out reveals sliders behind them.
+	 * 
+	 * @param square - square index
+	 * @param occupied - occupied squares to use for slider rays
+	 * @return bitboard of attacking pieces
+	 */
+	public long attackersTo(int square, long occupied) {
+		long queens = pieceBoards[Piece.QUEEN] | pieceBoards[Piece.QUEEN + Piece.NUM_TYPES];
+		long straight = pieceBoards[Piece.ROOK] | pieceBoards[Piece.ROOK + Piece.NUM_TYPES] | queens;
+		long diagonal = pieceBoards[Piece.BISHOP] | pieceBoards[Piece.BISHOP + Piece.NUM_TYPES] | queens;
+		
+		return (Bitboards.pawnAttacks(false, square) & pieceBoards[Piece.PAWN])
+				| (Bitboards.pawnAttacks(true, square) & pieceBoards[Piece.PAWN + Piece.NUM_TYPES])
+				| (Bitboards.knightAttacks(square) & (pieceBoards[Piece.KNIGHT] | pieceBoards[Piece.KNIGHT + Piece.NUM_TYPES]))
+				| (Bitboards.kingAttacks(square) & (pieceBoards[Piece.KING] | pieceBoards[Piece.KING + Piece.NUM_TYPES]))
+				| (Bitboards.rookAttacks(square, occupied) & straight)
+				| (Bitboards.bishopAttacks(square, occupied) & diagonal);
+	}
+	
+	/**
+	 * Finds least valuable piece of a color attacking square.
+	 * 
+	 * @param square - square index
+	 * @param byWhite - true for white attackers, false for black
+	 * @return square of that attacker, NO_SQUARE if square is not attacked
+	 */
+	public int lowestAttacker(int square, boolean byWhite) {
+		if (!isAttacked(square, byWhite)) {
+			return NO_SQUARE;
+		}
+		long attackers = attackersTo(square, occupied);
+		for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+			long matching = attackers & pieceBoards[Piece.index(type, byWhite)];
+			if (matching != 0) {
+				return Bitboards.first(matching);
+			}
+		}
+		return NO_SQUARE;
+	}
+	
+	/**
+	 * Static exchange evaluation of a move: material won once every piece able to
+	 * recapture on its end square has done so, cheapest first.
+	 * <p>
+	 * Attackers are found again after each capture with the capturer taken out of
+	 * the occupancy, so sliders lined up behind it (x-rays) join the exchange.
+	 * Either side may stop capturing when going on would lose material.
+	 * Pieces are worth their Evaluation material, so the result is on the same
+	 * scale as the search's scores. The board is not changed and nothing is allocated.
+	 * 
+	 * @param move - packed capture valid in the current position
+	 * @return material gained by the mover in hundredths of a pawn, negative if the exchange loses
+	 */
+	public int see(int move) {
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		long occupiedAfter = occupied & ~Bitboards.bit(from);
+		
+		int capturedSquare = to;
+		if ((PackedMove.flags(move) & EN_PASSANT) != 0) {
+			capturedSquare = whiteToMove ? to - 8 : to + 8;
+			occupiedAfter &= ~Bitboards.bit(capturedSquare);
+		}
+		swapGains[0] = pieces[capturedSquare] == null ? 0 : seeValue(pieces[capturedSquare]);
+		
+		int capturerValue = seeValue(pieces[from]);
+		boolean side = !pieces[from].getIsWhite();
+		int depth = 0;
+		while (true) {
+			depth++;
+			swapGains[depth] = capturerValue - swapGains[depth - 1];
+			long attackers = attackersTo(to, occupiedAfter) & occupiedAfter & colorBoards[side ? 0 : 1];
+			if (attackers == 0) {
+				break;
+			}
+			int square = NO_SQUARE;
+			for (int type = Piece.PAWN; type <= Piece.KING && square == NO_SQUARE; type++) {
+				long matching = attackers & pieceBoards[Piece.index(type, side)];
+				if (matching != 0) {
+					square = Bitboards.first(matching);
+				}
+			}
+			occupiedAfter &= ~Bitboards.bit(square);
+			capturerValue = seeValue(pieces[square]);
+			side = !side;
+		}
+		
+		while (--depth > 0) {
+			swapGains[depth - 1] = -Math.max(-swapGains[depth - 1], swapGains[depth]);
+		}
+		return swapGains[0];
+	}
+	
+	/**
+	 * Getter for value of piece in an exchange.
+	 * 
+	 * @param piece - piece captured or capturing
+	 * @return material in hundredths of a pawn, SEE_KING_VALUE for kings
+	 */
+	private static int seeValue(Piece piece) {
+		return piece.getType() == Piece.KING ? SEE_KING_VALUE : Evaluation.material(piece.getType());
+	}
+	
+	/**
+	 * Doubles size of undo stack when a game outgrows it.
+	 */
+	private void growUndo() {
+		int size = undoMoves.length * 2;
+		undoMoves = Arrays.copyOf(undoMoves, size);
+		undoMoved = Arrays.copyOf(undoMoved, size);
+		undoCaptured = Arrays.copyOf(undoCaptured, size);
+		undoState = Arrays.copyOf(undoState, size);
+		undoHash = Arrays.copyOf(undoHash, size);
+		promoted = Arrays.copyOf(promoted, size * 8);
+	}
+	
+	/**
+	 * Getter for Zobrist key of the pawns alone.
+	 * <p>
+	 * Kept up to date as pawns are added and removed, and 0 when there are no pawns.
+	 * 
+	 * @return 64 bit pawn key
+	 */
+	public long pawnHash() {
+		return pawnHash;
+	}
+	
+	/**
+	 * Getter for middlegame material and piece-square sum of one color.
+	 * 
+	 * @param isWhite - true for white, false for black
+	 * @return running sum in hundredths of a pawn
+	 */
+	public int getMiddlegameScore(boolean isWhite) {
+		return middlegameScores[isWhite ? 0 : 1];
+	}
+	
+	/**
+	 * Getter for endgame material and piece-square sum of one color.
+	 * 
+	 * @param isWhite - true for white, false for black
+	 * @return running sum in hundredths of a pawn
+	 */
+	public int getEndgameScore(boolean isWhite) {
+		return endgameScores[isWhite ? 0 : 1];
+	}
+	
+	/**
+	 * Getter for game phase, from the minor and major pieces left.
+	 * 
+	 * @return Evaluation.MAX_PHASE with every piece on the board, down to 0 with only kings and pawns
+	 */
+	public int getPhase() {
+		return phase;
+	}
+	
+	/**
+	 * Getter for Zobrist key of position.
+	 * <p>
+	 * Kept up to date with a few XORs per move, so equal positions have equal keys.
+	 * 
+	 * @return 64 bit position key
+	 */
+	public long hash() {
+		return hash;
+	}
+	
+	/**
+	 * Computes Zobrist key of position from scratch.
+	 * 
+	 * @return 64 bit position key
+	 */
+	public long computeHash() {
+		long key = Zobrist.castling(castling) ^ Zobrist.enPassant(epSquare);
+		if (!whiteToMove) {
+			key ^= Zobrist.side();
+		}
+		for (int i = 0; i < pieceBoards.length; i++) {
+			long bitboard = pieceBoards[i];
+			while (bitboard != 0) {
+				key ^= Zobrist.piece(i, Bitboards.first(bitboard));
+				bitboard &= bitboard - 1;
+			}
+		}
+		return key;
+	}
+	
+	/**
+	 * Checks if position has occurred before, looking back through the undo stack.
+	 * <p>
+	 * Only positions since the last capture or pawn move, with the same side to move,
+	 * can be the same, so every other key back to there is compared with the current one.
+	 * 
+	 * @param recent - number of latest moves within which one earlier occurrence is enough
+	 * @return true if position occurred within the recent moves, or twice before them
+	 */
+	public boolean isRepetition(int recent) {
+		int oldest = Math.max(0, ply - halfmoveClock);
+		int occurrences = 0;
+		for (int i = ply - 4; i >= oldest; i -= 2) {
+			if (undoHash[i] == hash && (i >= ply - recent || ++occurrences == 2)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Getter for whose turn it is.
+	 * 
+	 * @return true if white to move, false if black
+	 */
+	public boolean isWhiteToMove() {
+		return whiteToMove;
+	}
+	
+	/**
+	 * Getter for castling rights.
+	 * 
+	 * @return bit set of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE
+	 */
+	public int getCastling() {
+		return castling;
+	}
+	
+	/**
+	 * Getter for en passant target square.
+	 * 
+	 * @return square pawn skipped last move, NO_SQUARE if none
+	 */
+	public int getEpSquare() {
+		return epSquare;
+	}
+	
+	/**
+	 * Getter for number of moves since last capture or pawn move.
+	 * 
+	 * @return halfmove clock
+	 */
+	public int getHalfmoveClock() {
+		return halfmoveClock;
+	}
+	
+	/**
+	 * Getter for number of moves on undo stack.
+	 * 
+	 * @return moves that can be taken back
+	 */
+	public int getPly() {
+		return ply;
+	}
+	
 	/**
 	 * Getter for number of rows.
 	 * 
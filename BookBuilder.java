@@ -0,0 +1,291 @@
+package main;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Compiles a collection of PGN games into an OpeningBook file.
+ * <p>
+ * Positions are keyed by PolyglotKey, so the book can also be read by other Polyglot tools.
+ * <p>
+ * The first plies of every game are replayed. Each position and move is weighted
+ * the way Polyglot does it: two points for a game the side to move went on to win,
+ * one for a draw or unknown result, none for a loss. Moves seen in fewer than the
+ * minimum number of games are left out, as are moves that never scored. Weights are
+ * scaled down to fit 16 bits if needed, and entries are written sorted by unsigned key,
+ * best move first within a key.
+ * <p>
+ * Games start from the standard position, or from their FEN tag if they have one.
+ * Comments, variations, move numbers and annotation glyphs are skipped. A game stops
+ * counting at the first move that cannot be read.
+ * <p>
+ * Usage: BookBuilder output.bin [max plies] [min games] games.pgn...
+ *
+ * @author John Vnek
+ */
+public class BookBuilder {
+
+	public static final int DEFAULT_MAX_PLIES = 24;
+	public static final int DEFAULT_MIN_GAMES = 1;
+
+	private static final int MAX_WEIGHT = 0xFFFF;
+
+	private int maxPlies;
+	private int minGames;
+	private Map<Long, Map<Integer, int[]>> positions;
+	private int[] moveBuffer;
+	private int games;
+
+	/**
+	 * Constructor for BookBuilder.
+	 *
+	 * @param maxPlies - plies of each game to add
+	 * @param minGames - fewest games a move must be played in to be kept
+	 */
+	public BookBuilder(int maxPlies, int minGames) {
+		this.maxPlies = maxPlies;
+		this.minGames = Math.max(1, minGames);
+		this.positions = new HashMap<>();
+		this.moveBuffer = new int[MoveGenerator.MAX_MOVES];
+	}
+
+	/**
+	 * Builds book from PGN files given on the command line.
+	 *
+	 * @param args - output file, optional max plies and min games, then PGN files
+	 * @throws IOException if reading or writing fails
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: BookBuilder output.bin [max plies] [min games] games.pgn...");
+			return;
+		}
+		int index = 1;
+		int maxPlies = DEFAULT_MAX_PLIES;
+		int minGames = DEFAULT_MIN_GAMES;
+		if (index < args.length && args[index].matches("\\d+")) {
+			maxPlies = Integer.parseInt(args[index++]);
+		}
+		if (index < args.length && args[index].matches("\\d+")) {
+			minGames = Integer.parseInt(args[index++]);
+		}
+
+		BookBuilder builder = new BookBuilder(maxPlies, minGames);
+		for (; index < args.length; index++) {
+			try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[index]))) {
+				builder.addPgn(reader);
+			}
+		}
+		int entries = builder.write(Paths.get(args[0]));
+		System.out.printf("%d games, %d positions, %d entries written to %s%n",
+				builder.getGames(), builder.getPositions(), entries, args[0]);
+	}
+
+	/**
+	 * Getter for games read so far.
+	 *
+	 * @return game count
+	 */
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * Getter for distinct positions seen so far.
+	 *
+	 * @return position count
+	 */
+	public int getPositions() {
+		return positions.size();
+	}
+
+	/**
+	 * Reads every game from PGN text and adds its opening.
+	 *
+	 * @param reader - PGN text
+	 * @throws IOException if reading fails
+	 */
+	public void addPgn(BufferedReader reader) throws IOException {
+		String fen = null;
+		String result = "*";
+		StringBuilder movetext = new StringBuilder();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (line.startsWith("[")) {
+				if (movetext.length() > 0) {
+					addGame(fen, result, movetext.toString());
+					movetext.setLength(0);
+					fen = null;
+					result = "*";
+				}
+				if (line.startsWith("[FEN ")) {
+					fen = tagValue(line);
+				} else if (line.startsWith("[Result ")) {
+					result = tagValue(line);
+				}
+			} else if (!line.startsWith("%")) {
+				movetext.append(line).append('\n');
+			}
+		}
+		if (movetext.toString().trim().length() > 0) {
+			addGame(fen, result, movetext.toString());
+		}
+	}
+
+	/**
+	 * Replays the first plies of one game, counting each position and move.
+	 *
+	 * @param fen - starting position, null for the standard one
+	 * @param result - 1-0, 0-1, 1/2-1/2 or *
+	 * @param movetext - moves of the game in standard algebraic notation
+	 */
+	public void addGame(String fen, String result, String movetext) {
+		Board board;
+		try {
+			board = Board.fromFen(fen == null ? Board.STARTING_FEN : fen);
+		} catch (IllegalArgumentException e) {
+			return;
+		}
+		games++;
+
+		int plies = 0;
+		for (String token : tokens(movetext)) {
+			if (plies >= maxPlies) {
+				break;
+			}
+			int move = MoveGenerator.parseSan(board, token, moveBuffer);
+			if (move == PackedMove.NO_MOVE) {
+				break;
+			}
+			int[] counts = positions.computeIfAbsent(PolyglotKey.key(board), key -> new HashMap<>())
+					.computeIfAbsent(OpeningBook.toPolyglot(move), key -> new int[2]);
+			counts[0]++;
+			counts[1] += score(result, board.isWhiteToMove());
+			board.makeMove(move);
+			plies++;
+		}
+	}
+
+	/**
+	 * Writes book entries, sorted by unsigned key and by weight within a key.
+	 *
+	 * @param path - book file to create or replace
+	 * @return number of entries written
+	 * @throws IOException if writing fails
+	 */
+	public int write(Path path) throws IOException {
+		long maxScore = 1;
+		for (Map<Integer, int[]> moves : positions.values()) {
+			for (int[] counts : moves.values()) {
+				maxScore = Math.max(maxScore, counts[1]);
+			}
+		}
+		double scale = maxScore > MAX_WEIGHT ? (double) MAX_WEIGHT / maxScore : 1.0;
+
+		List<Long> keys = new ArrayList<>(positions.keySet());
+		keys.sort(Long::compareUnsigned);
+		int entries = 0;
+		ByteBuffer entry = ByteBuffer.allocate(OpeningBook.ENTRY_BYTES).order(ByteOrder.BIG_ENDIAN);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (long key : keys) {
+				List<Map.Entry<Integer, int[]>> moves = new ArrayList<>(positions.get(key).entrySet());
+				moves.sort((a, b) -> Integer.compare(b.getValue()[1], a.getValue()[1]));
+				for (Map.Entry<Integer, int[]> move : moves) {
+					int[] counts = move.getValue();
+					if (counts[0] < minGames || counts[1] == 0) {
+						continue;
+					}
+					int weight = (int) Math.max(1, Math.round(counts[1] * scale));
+					entry.clear();
+					entry.putLong(key);
+					entry.putShort((short) (int) move.getKey());
+					entry.putShort((short) weight);
+					entry.putInt(0);
+					entry.flip();
+					while (entry.hasRemaining()) {
+						channel.write(entry);
+					}
+					entries++;
+				}
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Points a move scores for the side that played it.
+	 *
+	 * @param result - 1-0, 0-1, 1/2-1/2 or *
+	 * @param white - true if white played the move
+	 * @return 2 for a win, 1 for a draw or unknown result, 0 for a loss
+	 */
+	private static int score(String result, boolean white) {
+		switch (result) {
+		case "1-0":
+			return white ? 2 : 0;
+		case "0-1":
+			return white ? 0 : 2;
+		default:
+			return 1;
+		}
+	}
+
+	/**
+	 * Splits movetext into moves, dropping comments, variations, move numbers, glyphs and results.
+	 *
+	 * @param movetext - PGN movetext
+	 * @return moves in standard algebraic notation
+	 */
+	private static List<String> tokens(String movetext) {
+		StringBuilder text = new StringBuilder();
+		int variation = 0;
+		boolean comment = false;
+		boolean lineComment = false;
+		for (int i = 0; i < movetext.length(); i++) {
+			char c = movetext.charAt(i);
+			if (lineComment) {
+				lineComment = c != '\n';
+			} else if (comment) {
+				comment = c != '}';
+			} else if (c == '{') {
+				comment = true;
+			} else if (c == ';') {
+				lineComment = true;
+			} else if (c == '(') {
+				variation++;
+			} else if (c == ')') {
+				variation = Math.max(0, variation - 1);
+			} else if (variation == 0) {
+				text.append(c);
+			}
+		}
+
+		List<String> moves = new ArrayList<>();
+		for (String token : text.toString().split("\\s+")) {
+			token = token.replaceFirst("^\\d+\\.+", "");
+			if (token.isEmpty() || token.startsWith("$") || token.equals("e.p.")
+					|| token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+				continue;
+			}
+			moves.add(token);
+		}
+		return moves;
+	}
+
+	/**
+	 * Reads value of PGN tag.
+	 *
+	 * @param line - tag line such as [Result "1-0"]
+	 * @return text between the quotes, empty if there are none
+	 */
+	private static String tagValue(String line) {
+		int start = line.indexOf('"');
+		int end = line.lastIndexOf('"');
+		return start >= 0 && end > start ? line.substring(start + 1, end) : "";
+	}
+}
@@ -23,7 +23,11 @@ public class Chess {
 	public void play() {
 		players = new Player[2];
 		players[0] = new HumanPlayer();
-		players[1] = new ComputerPlayer(players[0]);
+		ComputerPlayer computer = new ComputerPlayer(players[0]);
+		computer.getStats().register("computer");
+		computer.setPonder(true);
+		computer.setBitbases(Bitbases.getShared());
+		players[1] = computer;
 
 		System.out.println(board.toString());
 		
@@ -36,6 +40,7 @@ public class Chess {
 				}
 			}
 		}
+		computer.stopPondering();
 	}
 	
 	/**
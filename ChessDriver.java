@@ -1,5 +1,7 @@
 package main;
 
+import java.io.*;
+
 /**
  * Driver class for Chess class.
  * 
@@ -9,10 +11,22 @@ public class ChessDriver {
 
 	/**
 	 * Chess driver.
+	 * <p>
+	 * With the argument uci, speaks the Universal Chess Interface on standard input and output
+	 * instead of starting an interactive game. With the argument match, plays a headless
+	 * engine against engine Match configured by the arguments that follow.
 	 * 
-	 * @param args
+	 * @param args - optional mode, uci or match followed by match settings
+	 * @throws IOException if reading UCI commands or writing match games fails
 	 */
-	public static void main(String args[]) {
+	public static void main(String args[]) throws IOException {
+		if (args.length > 0 && args[0].equals("uci")) {
+			new Uci(System.in, System.out).run();
+			return;
+		} else if (args.length > 0 && args[0].equals("match")) {
+			Match.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
 		Chess chess = new Chess();
 		chess.play();
 	}
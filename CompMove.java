@@ -11,7 +11,7 @@ package main;
 public class CompMove extends Move implements Comparable<CompMove>{
 
 	private int safetyScore;
-	private final int BASE_SCORE = 5000;
+	public static final int BASE_SCORE = 5000;
 	
 	/**
 	 * Constructor for CompMove.
@@ -1,24 +1,80 @@
 package main;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
 
 /**
  * Computer capable of playing chess.
  * <p>
  * Analyzes all possible moves it can make in given turn.
  * Assigns score based on advantageousness and safety of each possible move.
- * Randomly selects between safest moves. 
+ * Searches the moves, in order of safety, with an alpha-beta Search to a fixed depth.
+ * With search depth 0 it randomly selects between safest moves instead. 
+ * A move time or clock bounds how long the search may take;
+ * the search can also be stopped from another thread.
+ * With more than one thread the search runs as LazySmp, sharing the transposition table,
+ * and root moves are scored in parallel, each worker on its own copy of the board.
+ * <p>
+ * Moves are packed ints kept in buffers allocated once per player,
+ * so scoring a turn does not create move objects.
+ * <p>
+ * Safety scores are kept in a small cache of their own that survives between turns,
+ * so a move from a position seen before is not scored again. The transposition table
+ * holds only the search's entries.
+ * <p>
+ * With ponder on, after each move the computer guesses the opponent's reply from
+ * the principal variation and searches the position it leads to on a background
+ * thread while the opponent thinks. If the reply comes as guessed, the turn picks up
+ * that search, with its iterations and transposition table entries, instead of
+ * starting over. Otherwise the background search is stopped and the turn runs as usual.
+ * <p>
+ * With an OpeningBook set, positions found in the book are answered from it without searching.
+ * With Bitbases set, the search scores simple endings from them instead of searching them out.
+ * <p>
+ * Each turn is recorded in EngineStats. Scoring details are traced through Log
+ * and cost nothing unless tracing is turned on. Turns and root move scoring are
+ * also emitted as EngineEvents for flight recordings.
  * 
  * @author John Vnek
  */
 public class ComputerPlayer extends Player {
 	 
-	private List<CompMove> potentialMoves;
-	private PriorityQueue<CompMove> safestMoves;
-	private Player opponent;
-	private Spot[] oppSpots;
-	private Spot[] compSpots;
+	public static final int DEFAULT_HASH_MB = 16;
+	public static final int DEFAULT_DEPTH = 4;
+	public static final int SAFETY_CACHE_MB = 1;
+	
+	private static final int SEARCH_PLIES = 2;
+	private static final int NUM_CHOICES = 15;
+	
 	private int numMoves;
+	private TranspositionTable table;
+	private TranspositionTable safetyCache;
+	private LazySmp search;
+	private int searchDepth;
+	private TimeManager time;
+	private long moveTime;
+	private long clockRemaining;
+	private long clockIncrement;
+	private int movesToGo;
+	private long nodeLimit;
+	private volatile boolean pondering;
+	private boolean ponder;
+	private ExecutorService ponderThread;
+	private Future<Integer> ponderResult;
+	private long ponderKey;
+	private int[] ponderLine;
+	private int[][] moveBuffers;
+	private ForkJoinPool scoringPool;
+	private ThreadLocal<Board> scoringBoards;
+	private ThreadLocal<int[]> scoringBuffers;
+	private int[] scores;
+	private int[] choices;
+	private Random random;
+	private OpeningBook book;
+	private boolean bookMove;
+	private EngineStats stats;
 	
 	/**
 	 * Constructor for ComputerPlayer.
@@ -26,12 +82,302 @@ public class ComputerPlayer extends Player {
 	 * @param opponent - player opponent of computer
 	 */
 	public ComputerPlayer(Player opponent) {
-		this.potentialMoves = new LinkedList<>(); 
-		this.safestMoves = new PriorityQueue<>(Collections.reverseOrder());
-		this.opponent = opponent;
-		this.oppSpots = new Spot[16];
-		this.compSpots = new Spot[16];
+		this(opponent, DEFAULT_HASH_MB);
+	}
+	
+	/**
+	 * Constructor for ComputerPlayer with transposition table size.
+	 * 
+	 * @param opponent - player opponent of computer
+	 * @param hashMegabytes - memory budget of transposition table in MB
+	 */
+	public ComputerPlayer(Player opponent, int hashMegabytes) {
+		this(!opponent.isWhitePieces(), hashMegabytes);
+	}
+	
+	/**
+	 * Constructor for ComputerPlayer playing given color.
+	 * 
+	 * @param whitePieces - true if computer plays white, false if black
+	 * @param hashMegabytes - memory budget of transposition table in MB
+	 */
+	public ComputerPlayer(boolean whitePieces, int hashMegabytes) {
+		this.whitePieces = whitePieces;
+		this.humanPlayer = false;
 		this.numMoves = 0;
+		this.table = new TranspositionTable(hashMegabytes);
+		this.safetyCache = new TranspositionTable(SAFETY_CACHE_MB);
+		this.search = new LazySmp(table, 1);
+		this.searchDepth = DEFAULT_DEPTH;
+		this.time = new TimeManager();
+		this.moveBuffers = new int[SEARCH_PLIES][MoveGenerator.MAX_MOVES];
+		this.scores = new int[MoveGenerator.MAX_MOVES];
+		this.choices = new int[NUM_CHOICES];
+		this.random = new Random();
+		this.stats = new EngineStats();
+		this.ponderLine = new int[Search.MAX_PLY + 1];
+		this.scoringBoards = ThreadLocal.withInitial(Board::new);
+		this.scoringBuffers = ThreadLocal.withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
+	}
+	
+	/**
+	 * Getter for transposition table.
+	 * 
+	 * @return table shared by every turn this player takes
+	 */
+	public TranspositionTable getTable() {
+		return table;
+	}
+	
+	/**
+	 * Empties transposition table, safety score cache and pawn hash tables, as before a new game.
+	 */
+	public void clearTables() {
+		table.clear();
+		safetyCache.clear();
+		search.clearPawnTables();
+	}
+	
+	/**
+	 * Resizes transposition table, dropping its entries.
+	 * 
+	 * @param megabytes - memory budget in MB
+	 */
+	public void setHashSize(int megabytes) {
+		table.resize(megabytes);
+	}
+	
+	/**
+	 * Getter for search depth.
+	 * 
+	 * @return depth of deepest search iteration in plies, 0 if moves are picked by safety alone
+	 */
+	public int getSearchDepth() {
+		return searchDepth;
+	}
+	
+	/**
+	 * Setter for search depth.
+	 * 
+	 * @param searchDepth - depth of deepest search iteration in plies, 0 to pick moves by safety alone
+	 */
+	public void setSearchDepth(int searchDepth) {
+		this.searchDepth = Math.max(0, Math.min(searchDepth, Search.MAX_PLY));
+	}
+	
+	/**
+	 * Setter for time each move may take.
+	 * <p>
+	 * Search stops at search depth or when time runs out, whichever comes first.
+	 * 
+	 * @param moveTime - milliseconds per move, 0 for no limit
+	 */
+	public void setMoveTime(long moveTime) {
+		this.moveTime = Math.max(0, moveTime);
+	}
+	
+	/**
+	 * Setter for game clock, which takes precedence over move time while set.
+	 * 
+	 * @param remaining - milliseconds left on computer's clock, 0 to stop using the clock
+	 * @param increment - milliseconds added after each move
+	 * @param movesToGo - moves left until the next time control, 0 if unknown
+	 */
+	public void setClock(long remaining, long increment, int movesToGo) {
+		this.clockRemaining = Math.max(0, remaining);
+		this.clockIncrement = Math.max(0, increment);
+		this.movesToGo = Math.max(0, movesToGo);
+	}
+	
+	/**
+	 * Setter for node limit of the main search thread, which takes effect alongside the time limits.
+	 * 
+	 * @param nodeLimit - nodes the main search thread may visit per turn, 0 for no limit
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = Math.max(0, nodeLimit);
+	}
+	
+	/**
+	 * Setter for pondering, which lets the next turn search without a deadline until ponderHit.
+	 * 
+	 * @param pondering - true to ponder the next turn, false for a normal turn
+	 */
+	public void setPondering(boolean pondering) {
+		this.pondering = pondering;
+	}
+	
+	/**
+	 * Getter for pondering.
+	 * 
+	 * @return true while a turn is searched without a deadline, waiting for ponderHit
+	 */
+	public boolean isPondering() {
+		return pondering;
+	}
+	
+	/**
+	 * Getter for ponder.
+	 * 
+	 * @return true if the computer searches on the opponent's time after each turn
+	 */
+	public boolean getPonder() {
+		return ponder;
+	}
+	
+	/**
+	 * Setter for ponder.
+	 * 
+	 * @param ponder - true to search on the opponent's time after each turn, false not to
+	 */
+	public void setPonder(boolean ponder) {
+		this.ponder = ponder;
+		if (!ponder) {
+			stopPondering();
+		} else if (ponderThread == null) {
+			ponderThread = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "ponder");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+	
+	/**
+	 * Turns a ponder search into a normal one, starting the clock or move time from now.
+	 * <p>
+	 * The search keeps its transposition table and iterations so far. Safe to call from any thread.
+	 */
+	public void ponderHit() {
+		if (pondering) {
+			pondering = false;
+			startClock();
+		}
+	}
+	
+	/**
+	 * Stops the current turn's search, keeping the best move found so far.
+	 * <p>
+	 * Safe to call from any thread.
+	 */
+	public void stop() {
+		time.stop();
+	}
+	
+	/**
+	 * Getter for time manager of the current or last turn.
+	 * 
+	 * @return time manager
+	 */
+	public TimeManager getTimeManager() {
+		return time;
+	}
+	
+	/**
+	 * Getter for number of search threads.
+	 * 
+	 * @return threads searching each turn
+	 */
+	public int getThreads() {
+		return search.getThreads();
+	}
+	
+	/**
+	 * Setter for number of search threads.
+	 * 
+	 * @param threads - threads searching each turn, 1 to search on the calling thread only
+	 */
+	public void setThreads(int threads) {
+		search.setThreads(threads);
+		if (scoringPool != null) {
+			scoringPool.shutdown();
+			scoringPool = null;
+		}
+		if (search.getThreads() > 1) {
+			scoringPool = new ForkJoinPool(search.getThreads());
+		}
+	}
+	
+	/**
+	 * Setter for listener told about each iteration the main search completes, on the searching thread.
+	 * 
+	 * @param iterationListener - listener, null for none
+	 */
+	public void setIterationListener(Consumer<Search> iterationListener) {
+		search.setIterationListener(iterationListener);
+	}
+	
+	/**
+	 * Seeds the random choice between safest moves, so games can be replayed.
+	 * 
+	 * @param seed - random seed
+	 */
+	public void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+	
+	/**
+	 * Getter for opening book.
+	 * 
+	 * @return opening book, null if none
+	 */
+	public OpeningBook getBook() {
+		return book;
+	}
+	
+	/**
+	 * Setter for opening book, consulted before any search while it has the position.
+	 * Book moves are chosen with the same random source as setSeed seeds.
+	 * 
+	 * @param book - opening book, null for none
+	 */
+	public void setBook(OpeningBook book) {
+		this.book = book;
+	}
+	
+	/**
+	 * Getter for endgame bitbases.
+	 * 
+	 * @return bitbases, null if none
+	 */
+	public Bitbases getBitbases() {
+		return search.getMainSearch().getBitbases();
+	}
+	
+	/**
+	 * Setter for endgame bitbases, probed by every search thread.
+	 * 
+	 * @param bitbases - bitbases, null for none
+	 */
+	public void setBitbases(Bitbases bitbases) {
+		search.setBitbases(bitbases);
+	}
+	
+	/**
+	 * Getter for whether the last move chosen came from the book rather than a search.
+	 * 
+	 * @return true if the last move was a book move
+	 */
+	public boolean isBookMove() {
+		return bookMove;
+	}
+	
+	/**
+	 * Getter for statistics of the last turn and totals over every turn.
+	 * 
+	 * @return statistics, updated after each turn
+	 */
+	public EngineStats getStats() {
+		return stats;
+	}
+	
+	/**
+	 * Getter for main search, holding statistics of the last turn.
+	 * 
+	 * @return search run on the thread taking the turn
+	 */
+	public Search getSearch() {
+		return search.getMainSearch();
 	}
 	
 	/**
@@ -42,206 +388,369 @@ public class ComputerPlayer extends Player {
 	 * @param piecesCaptured - list of all pieces captured
 	 */
 	public void turn(Board board, List<Move> moveTracker, List<Piece> piecesCaptured) {
-		updateSpots(board);
-		checkSpots(board, potentialMoves);
-		assessSafety(board, potentialMoves, safestMoves);
-		Move move = getSafestMove();
-		makeMove(move, moveTracker, piecesCaptured);
-		clearData();
+		int move = PackedMove.NO_MOVE;
+		if (ponderResult != null) {
+			move = finishPondering(board.hash());
+		}
+		if (move == PackedMove.NO_MOVE) {
+			startClock();
+			move = think(board);
+		}
+		if (move == PackedMove.NO_MOVE) {
+			move = anyMove(board);
+			if (move == PackedMove.NO_MOVE) {
+				return;
+			}
+		}
+		playMove(board, toMove(board, move), moveTracker, piecesCaptured);
+		if (ponder) {
+			startPondering(board);
+		}
 	}
 	
 	/**
-	 * Updates lists of spots for black and white pieces.
+	 * Picks a move when there is no legal one, as the game goes on until a king is captured.
+	 * <p>
+	 * The king is already lost then, so the safest move by standard rules is played
+	 * and the game ends with the king's capture.
 	 * 
 	 * @param board - chess board Object
+	 * @return safest packed move, NO_MOVE if the side to move has no move at all
 	 */
-	private void updateSpots(Board board) {
-		Spot[][] spots = board.getBoardSpots();
-		int numWhitePieces = 0;
-		int numBlackPieces = 0;
-		
-		for (int i = 0, yLim = board.getNumRows(); i < yLim; i++) {
-			for (int j = 0, xLim = board.getNumColumns(); j < xLim; j++) {	
-				Piece piece = spots[i][j].getPiece();
-				if (piece != null) {
-					if (piece.getIsWhite()) {
-						oppSpots[numWhitePieces++] = spots[i][j];
-					} else {
-						compSpots[numBlackPieces++] = spots[i][j];
-					}
-				}
+	private int anyMove(Board board) {
+		int[] moves = moveBuffers[0];
+		int count = MoveGenerator.generate(board, moves);
+		assessSafety(board, moves, scores, count);
+		sortMoves(moves, scores, count);
+		return count > 0 ? moves[0] : PackedMove.NO_MOVE;
+	}
+	
+	/**
+	 * Starts searching, in the background, the position after the opponent's expected reply.
+	 * <p>
+	 * The reply expected is the second move of the last search's principal variation.
+	 * Nothing is started if there is none, it is not legal here, or the move came from the book.
+	 * 
+	 * @param board - chess board Object with the opponent to move, copied so the game can go on
+	 */
+	private void startPondering(Board board) {
+		int length = searchDepth > 0 && !bookMove ? search.getMainSearch().getPrincipalVariation(ponderLine) : 0;
+		if (length < 2) {
+			return;
+		}
+		int[] moves = moveBuffers[1];
+		int count = MoveGenerator.generateLegal(board, moves);
+		int reply = PackedMove.NO_MOVE;
+		for (int i = 0; i < count; i++) {
+			if (moves[i] == ponderLine[1]) {
+				reply = moves[i];
+				break;
 			}
 		}
+		if (reply == PackedMove.NO_MOVE) {
+			return;
+		}
+		
+		Board ponderBoard = new Board(board);
+		ponderBoard.makeMove(reply);
+		ponderKey = ponderBoard.hash();
+		setPondering(true);
+		startClock();
+		ponderResult = ponderThread.submit(() -> think(ponderBoard));
 	}
 	
 	/**
-	 * Checks all spots with black pieces for potential moves.
+	 * Ends background search once the opponent has moved.
+	 * <p>
+	 * On a hit the search carries on under the turn's time limits, counted from now,
+	 * and its move is returned. On a miss it is stopped and its move thrown away.
 	 * 
-	 * @param board - chess board Object
-	 * @param moveList - list of potential moves
+	 * @param key - Zobrist key of the position the computer now has to move in
+	 * @return move of ponder search, NO_MOVE on a miss
 	 */
-	private void checkSpots(Board board, List<CompMove> moveList) {
-		for (int i = 0; i < compSpots.length; i++) {
-			if (compSpots[i] != null) {
-				checkPiece(board, moveList, compSpots[i]);
-			}
+	private int finishPondering(long key) {
+		Future<Integer> result = ponderResult;
+		ponderResult = null;
+		boolean hit = key == ponderKey;
+		if (hit) {
+			ponderHit();
+		} else {
+			setPondering(false);
+			stop();
+		}
+		if (Log.DEBUG_ENABLED) {
+			Log.log(Log.DEBUG, hit ? "ponder hit" : "ponder miss");
+		}
+		
+		try {
+			int move = result.get();
+			return hit ? move : PackedMove.NO_MOVE;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return PackedMove.NO_MOVE;
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Ponder search failed", e.getCause());
 		}
 	}
 	
 	/**
-	 * Checks piece type and all possible moves that piece can make.
+	 * Stops any background search and waits for it to end.
+	 */
+	public void stopPondering() {
+		if (ponderResult != null) {
+			finishPondering(0);
+		}
+	}
+	
+	/**
+	 * Chooses a move for the side to move without playing it.
+	 * <p>
+	 * Legal moves are generated into preallocated buffers
+	 * and searched safest first, which the search's pruning benefits from.
+	 * With no legal move, checkmate or stalemate, NO_MOVE is returned.
+	 * <p>
+	 * The computer takes the color of the side to move. The turn's time limits
+	 * must already be running from startClock, so a stop sent by another thread
+	 * before the search begins is not lost. A book move, if there is one, is returned
+	 * straight away.
 	 * 
-	 * @param board - chess board Object
-	 * @param moveList - list of potential moves
-	 * @param spot - starting spot position of piece 
-	 */
-	private void checkPiece(Board board, List<CompMove> moveList, Spot spot) {
-		Piece piece = spot.getPiece();
-		if (piece != null) {
-			if (piece.getIsWhite() == this.whitePieces) {
-				int startX = spot.getX();
-				int startY = spot.getY();
-				
-				if (piece instanceof Knight) {
-					checkMoves(board, moveList, piece, spot, startX - 2, startY - 1);
-					checkMoves(board, moveList, piece, spot, startX - 2, startY + 1);
-					
-					checkMoves(board, moveList, piece, spot, startX - 1, startY - 2);
-					checkMoves(board, moveList, piece, spot, startX - 1, startY + 2);
-					
-					checkMoves(board, moveList, piece, spot, startX + 1, startY - 2);
-					checkMoves(board, moveList, piece, spot, startX + 1 , startY + 2);
-					
-					checkMoves(board, moveList, piece, spot, startX + 2 , startY - 1);
-					checkMoves(board, moveList, piece, spot, startX + 2 , startY + 1);
-				} else if (piece instanceof Bishop) {
-					checkAcross(board, moveList, piece, spot, startX - 1, startY - 1, -1, -1);
-					checkAcross(board, moveList, piece, spot, startX - 1, startY + 1, -1, 1);
-					
-					checkAcross(board, moveList, piece, spot, startX + 1, startY - 1, 1, -1);
-					checkAcross(board, moveList, piece, spot, startX + 1, startY + 1, 1, 1);
-				} else if (piece instanceof Rook) {
-					checkAcross(board, moveList, piece, spot, startX - 1, startY, -1, 0);
-					checkAcross(board, moveList, piece, spot, startX + 1, startY, 1, 0);
-					
-					checkAcross(board, moveList, piece, spot, startX, startY - 1, 0, -1);
-					checkAcross(board, moveList, piece, spot, startX, startY + 1, 0, 1);
-				} else if (piece instanceof Queen) {
-					checkAcross(board, moveList, piece, spot, startX - 1, startY - 1, -1, -1);
-					checkAcross(board, moveList, piece, spot, startX - 1, startY + 1, -1, 1);
-					
-					checkAcross(board, moveList, piece, spot, startX + 1, startY - 1, 1, -1);
-					checkAcross(board, moveList, piece, spot, startX + 1, startY + 1, 1, 1);
-					
-					checkAcross(board, moveList, piece, spot, startX - 1, startY, -1, 0);
-					checkAcross(board, moveList, piece, spot, startX + 1, startY, 1, 0);
-					
-					checkAcross(board, moveList, piece, spot, startX, startY - 1, 0, -1);
-					checkAcross(board, moveList, piece, spot, startX, startY + 1, 0, 1);
-				} else {
-					for (int i = 0; i < 3; i++) {
-						for (int j = 0; j < 3; j++) {
-							checkMoves(board, moveList, piece, spot, (startX - 1) + i, (startY - 1) + j);
-						}
-					}
-					checkMoves(board, moveList, piece, spot, startX, startY - 2);
+	 * @param board - chess board Object, left as it was found
+	 * @return packed move chosen, NO_MOVE if there is no legal move
+	 */
+	public int think(Board board) {
+		this.whitePieces = board.isWhiteToMove();
+		this.bookMove = false;
+		if (book != null) {
+			int move = book.probe(board, random, moveBuffers[0]);
+			if (move != PackedMove.NO_MOVE) {
+				this.bookMove = true;
+				if (Log.DEBUG_ENABLED) {
+					Log.log(Log.DEBUG, PackedMove.toString(move) + " from book");
 				}
+				return move;
 			}
 		}
+		EngineEvents.Turn event = null;
+		if (EngineEvents.isEnabled(EngineEvents.Turn.class)) {
+			event = new EngineEvents.Turn();
+			event.begin();
+		}
+		long start = System.nanoTime();
+		long probes = table.getProbes();
+		long hits = table.getHits();
+		table.newSearch();
+		int[] moves = moveBuffers[0];
+		int count = MoveGenerator.generateLegal(board, moves);
+		if (count == 0) {
+			return PackedMove.NO_MOVE;
+		}
+		long generated = System.nanoTime();
+		
+		assessSafety(board, moves, scores, count);
+		sortMoves(moves, scores, count);
+		long assessed = System.nanoTime();
+		int move;
+		if (searchDepth > 0) {
+			move = search.search(board, moves, count, searchDepth, time);
+		} else {
+			move = getSafestMove(moves, scores, count);
+		}
+		long searched = System.nanoTime();
+		
+		stats.record(searchDepth > 0 ? search : null, table.getProbes() - probes, table.getHits() - hits,
+				generated - start, assessed - generated, searched - assessed, searched - start);
+		if (Log.DEBUG_ENABLED) {
+			Log.log(Log.DEBUG, PackedMove.toString(move) + " " + stats);
+		}
+		if (event != null) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.white = this.whitePieces;
+				event.rootMoves = count;
+				event.move = PackedMove.toString(move);
+				event.depth = searchDepth > 0 ? search.getMainSearch().getCompletedDepth() : 0;
+				event.score = searchDepth > 0 ? search.getMainSearch().getBestScore() : 0;
+				event.nodes = searchDepth > 0 ? search.getNodes() : 0;
+				event.generationTime = generated - start;
+				event.safetyTime = assessed - generated;
+				event.searchTime = searched - assessed;
+				event.commit();
+			}
+		}
+		return move;
 	}
 	
 	/**
-	 * Recursively checks all moves for pieces that can move across horizontally, vertically, and/or diagonally. 
-	 * 
-	 * @param board - chess board Object
-	 * @param moveList - list of potential moves
-	 * @param piece - piece that will move
-	 * @param start - starting spot of piece
-	 * @param endX - ending x coordinate of piece after move
-	 * @param endY - ending y coordinate of piece after move
-	 * @param xStep - amount x changes per move
-	 * @param yStep - amount y changes per move
-	 * @return true if last possible captures piece, false if not
-	 */
-	private boolean checkAcross(Board board, List<CompMove> moveList, Piece piece, Spot start, int endX, int endY, int xStep, int yStep) {
-		if (endX < 0 || endX > 7 || endY < 0 || endY > 7) {
-			return false;
+	 * Starts time manager for a turn from the clock, move time, or neither.
+	 * <p>
+	 * While pondering there is no deadline at all.
+	 */
+	public void startClock() {
+		time.setNodeLimit(nodeLimit);
+		if (pondering) {
+			time.startInfinite();
+		} else if (clockRemaining > 0) {
+			time.startClock(clockRemaining, clockIncrement, movesToGo);
+		} else if (moveTime > 0) {
+			time.startMoveTime(moveTime);
 		} else {
-			Spot end = board.getSpot(endX, endY);
-			Piece endPiece;
-			if (end.getPiece() != null) {
-				endPiece = end.getPiece();
-				if (endPiece.getIsWhite() == piece.getIsWhite()) {
-					return false;
-				} else {
-					if (moveList != null) moveList.add(new CompMove(this, start, end, piece));
-					return true;
-				}
-			} else {
-				if (moveList != null) moveList.add(new CompMove(this, start, end, piece));
-				return checkAcross(board, moveList, piece, start, endX + xStep, endY + yStep, xStep, yStep);
-			}
+			time.startInfinite();
 		}
 	}
 	
 	/**
-	 * Checks if move can be made
+	 * Turns packed move into Move object for move tracker.
 	 * 
 	 * @param board - chess board Object
-	 * @param moveList - list of potential moves
-	 * @param piece - piece that will move
-	 * @param start - starting spot of piece
-	 * @param endX - ending x coordinate of piece after move
-	 * @param endY - ending y coordinate of piece after move
-	 * @return true if move can be made, false if not
+	 * @param move - packed move
+	 * @return Move between the same spots
 	 */
-	private boolean checkMoves(Board board, List<CompMove> moveList, Piece piece, Spot start, int endX, int endY) {
-		if (endX > -1 && endX < 8 && endY > -1 && endY < 8) {
-			Spot end = board.getSpot(endX, endY);
-			if (piece.checkMove(board, this, start, end)) {
-				if (moveList != null) moveList.add(new CompMove(this, start, end, piece));
-				return true;
-			}		
+	private Move toMove(Board board, int move) {
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		Spot start = board.getSpot(Bitboards.col(from), Bitboards.row(from));
+		Spot end = board.getSpot(Bitboards.col(to), Bitboards.row(to));
+		CompMove compMove = new CompMove(this, start, end, start.getPiece());
+		if (PackedMove.promotion(move) != 0) {
+			compMove.setPromotion(PackedMove.promotion(move));
 		}
-		return false;
+		return compMove;
 	}
 	
 	/**
 	 * Assigns safety score to each possible move based on various factors
+	 * <p>
+	 * With a scoring pool, moves are scored in parallel, each worker making moves on
+	 * its own copy of the board. Every score lands at its move's index and scoring
+	 * depends only on the position, so the result is the same as scoring in order.
 	 * 
 	 * @param board - chess board Object
-	 * @param moveList - list of potential moves
-	 * @param moveQueue - priority queue of potential moves sorted by highest safety score
+	 * @param moves - buffer of packed moves
+	 * @param scores - buffer receiving safety score of each move
+	 * @param count - number of moves in buffer
 	 */
-	public void assessSafety(Board board, List<CompMove> moveList, PriorityQueue<CompMove> moveQueue) {
-		Iterator<CompMove> iter = moveList.iterator();
-		int count = 1;	
+	public void assessSafety(Board board, int[] moves, int[] scores, int count) {
+		if (scoringPool == null) {
+			for (int i = 0; i < count; i++) {
+				scores[i] = scoreMove(board, moves[i], moveBuffers[1]);
+			}
+		} else {
+			scoringPool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, count).parallel().forEach(i -> {
+				Board copy = scoringBoards.get();
+				copy.copyFrom(board);
+				scores[i] = scoreMove(copy, moves[i], scoringBuffers.get());
+			})));
+		}
+	}
+	
+	/**
+	 * Assigns safety score to one move.
+	 * <p>
+	 * Looks the move up in the safety score cache first and only scores it on a miss.
+	 * <p>
+	 * When the MoveScoring event is enabled, the time of each part is recorded in it.
+	 * 
+	 * @param board - chess board Object
+	 * @param move - packed move
+	 * @param nextMoves - buffer for moves of the piece after it has moved
+	 * @return safety score
+	 */
+	private int scoreMove(Board board, int move, int[] nextMoves) {
+		EngineEvents.MoveScoring event = null;
+		if (EngineEvents.isEnabled(EngineEvents.MoveScoring.class)) {
+			event = new EngineEvents.MoveScoring();
+			event.begin();
+		}
+		long key = moveKey(board, move);
+		long data = safetyCache.probe(key);
 		
-		while(iter.hasNext()) {
-			System.out.println(count++);
-			CompMove move = iter.next();
-			checkCaptured(move);
-			moveSafety(board, move, compSpots, oppSpots);
-			exposedPieceSafety(board, move, compSpots, oppSpots);
-			
-			System.out.println(move.getSafetyScore());
-			
-			moveQueue.offer(move);
+		if (data != 0) {
+			int score = TranspositionTable.score(data);
+			commitScoring(event, move, score, true);
+			return score;
+		}
+		boolean timed = event != null && event.isEnabled();
+		int score = CompMove.BASE_SCORE;
+		score += checkCaptured(board, move);
+		long start = timed ? System.nanoTime() : 0;
+		score += moveSafety(board, move, nextMoves, event);
+		long safe = timed ? System.nanoTime() : 0;
+		score += exposedPieceSafety(board, move);
+		if (timed) {
+			event.moveSafetyTime = safe - start;
+			event.exposedPieceTime = System.nanoTime() - safe;
+		}
+		safetyCache.store(key, 1, TranspositionTable.EXACT, score, move);
+		
+		if (Log.TRACE_ENABLED) {
+			Log.log(Log.TRACE, "safety " + PackedMove.toString(move) + " " + score);
 		}
+		commitScoring(event, move, score, false);
+		return score;
+	}
+	
+	/**
+	 * Ends and commits MoveScoring event if it is recorded.
+	 * 
+	 * @param event - event begun when scoring started, null if not recorded
+	 * @param move - packed move scored
+	 * @param score - safety score
+	 * @param cached - true if score came from the safety score cache
+	 */
+	private void commitScoring(EngineEvents.MoveScoring event, int move, int score, boolean cached) {
+		if (event == null) {
+			return;
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.move = PackedMove.toString(move);
+			event.score = score;
+			event.cached = cached;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Key of a move from the current position, used to cache its safety score.
+	 * 
+	 * @param board - chess board Object
+	 * @param move - packed move being scored
+	 * @return position key combined with move's start, end and promotion piece
+	 */
+	private long moveKey(Board board, int move) {
+		return board.hash() ^ Zobrist.move(PackedMove.from(move), PackedMove.to(move), PackedMove.promotion(move));
 	}
 	
 	/**
 	 * Checks if move results in piece capturing another piece.
 	 * If it does capture piece, add points to safety score.
 	 * 
-	 * @param move - computer move being made
+	 * @param board - chess board Object
+	 * @param move - packed computer move being made
+	 * @return points added to safety score
 	 */
-	public void checkCaptured(CompMove move) {
-		Piece piece = move.getPieceCaptured();
+	public int checkCaptured(Board board, int move) {
+		int captured = PackedMove.captured(move);
 		
-		if (piece != null && piece.getIsWhite() != this.whitePieces) {
-			move.addToScore(((125) * piece.getValue()));
+		if (captured != PackedMove.NO_PIECE && (captured < Piece.NUM_TYPES) != this.whitePieces) {
+			return 125 * capturedValue(board, move);
+		}
+		return 0;
+	}
+	
+	/**
+	 * Getter for value of piece move captures.
+	 * 
+	 * @param board - chess board Object, before move is made
+	 * @param move - packed capturing move
+	 * @return value of captured piece
+	 */
+	private int capturedValue(Board board, int move) {
+		int to = PackedMove.to(move);
+		if ((PackedMove.flags(move) & Board.EN_PASSANT) != 0) {
+			to = PackedMove.piece(move) < Piece.NUM_TYPES ? to - 8 : to + 8;
 		}
+		return board.getPiece(to).getValue();
 	}
 	
 	/**
@@ -253,92 +762,86 @@ public class ComputerPlayer extends Player {
 	 * Or if piece can be captured but opponent piece put at risk as a result,
 	 * considered sacrifice, add points instead.
 	 * <p>
-	 * If piece can be captured prior to moving, add points to score.
-	 * <p>
 	 * If piece cannot be captured by opponent after move,
 	 * check next possible moves to see if first move gives advantage.
+	 * <p>
+	 * Attackers are read from the board's attack maps rather than checking every opponent piece.
 	 * 
 	 * @param board - chess board Object
-	 * @param move - computer move being made
-	 * @param compSpots - array of all spots with computer (black) pieces
-	 * @param oppSpots - array of all spot with opponent (white) pieces
+	 * @param move - packed computer move being made
+	 * @param nextMoves - buffer for moves of the piece after it has moved
+	 * @param event - scoring event receiving time spent in assessAdvantage, null if not recorded
+	 * @return points added to safety score
 	 */
-	private void moveSafety(Board board, CompMove move, Spot[] compSpots, Spot[] oppSpots) {
-		Spot start = move.getStart();
-		Piece pieceMoved = move.getPieceMoved();
+	private int moveSafety(Board board, int move, int[] nextMoves, EngineEvents.MoveScoring event) {
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		Piece pieceMoved = board.getPiece(from);
 		int pieceValue = pieceMoved.getValue();
+		boolean oppWhite = !this.whitePieces;
 		
-		Spot end = move.getEnd();
-		Piece endPiece = end.getPiece();
+		if (Log.TRACE_ENABLED) {
+			Log.log(Log.TRACE, "move " + pieceMoved + " to " + PackedMove.squareName(to));
+		}
 		
-		boolean canBeCaptured = false;
-		System.out.println(pieceMoved + " " + end);
+		int score = 25 * pieceValue * board.getAttackerCount(from, oppWhite);
 		
-		for (int i = 0; i < oppSpots.length; i++) {
-			if (oppSpots[i] != null) {
-				Piece oppPiece = oppSpots[i].getPiece();
-				
-				if (oppPiece.checkMove(board, opponent, oppSpots[i], start)) {
-					move.addToScore(25 * pieceValue);
-				}
+		board.makeMove(move);
+		int attackerCount = board.getAttackerCount(to, oppWhite);
+		if (attackerCount > 0) {
+			score += ((-50) * pieceValue) * attackerCount;
+			
+			long attackers = board.attackersTo(to, board.getOccupied()) & board.getColorPieces(oppWhite);
+			while (attackers != 0) {
+				int oppSquare = Bitboards.first(attackers);
+				Piece oppPiece = board.getPiece(oppSquare);
 				
-				end.setPiece(pieceMoved);
-				if (oppPiece.checkMove(board, opponent, oppSpots[i], end)) {
-					move.addToScore(((-50) * pieceValue));
-					
-					if (sacrifice(board, move, compSpots, end, oppPiece, oppSpots[i], oppPiece)) {
-						System.out.println("Entered4");
-						
-						move.addToScore(25 * oppPiece.getValue());
+				if (sacrifice(board, to, pieceMoved, oppSquare, oppPiece)) {
+					if (Log.TRACE_ENABLED) {
+						Log.log(Log.TRACE, "sacrifice on " + PackedMove.squareName(to) + " for " + oppPiece);
 					}
-					canBeCaptured = true;
-				} 
-				end.setPiece(endPiece);
+					score += 25 * oppPiece.getValue();
+				}
+				attackers &= attackers - 1;
+			}
+		} else {
+			boolean timed = event != null && event.isEnabled();
+			long start = timed ? System.nanoTime() : 0;
+			score += assessAdvantage(board, to, pieceMoved, nextMoves);
+			if (timed) {
+				event.advantageTime = System.nanoTime() - start;
 			}
 		}
-		
-		if (!canBeCaptured) {
-			end.setPiece(pieceMoved);
-			assessAdvantage(board, move, end, pieceMoved);
-			end.setPiece(endPiece);
-		}
+		board.unmakeMove();
+		return score;
 	}
 	
 	/**
 	 * Checks if piece being captured can set up computer to capture more valuable opponent piece.
 	 * <p>
 	 * First checks if opponent piece captured is at least twice as valuable as computer piece.
-	 * If true, checks if other computer piece can captured opponent piece.
+	 * If true, checks if other computer piece can captured opponent piece,
+	 * including sliders that were behind the opponent piece.
+	 * <p>
+	 * Expects the computer move to already be made on the board.
 	 * 
 	 * @param board - chess board Object
-	 * @param move - computer move being made
-	 * @param compSpots - array of all spots with black pieces
-	 * @param moveEnd - spot that piece moves to
+	 * @param moveEnd - square that piece moves to
 	 * @param pieceMoved - computer piece that moves
-	 * @param oppStart - spot where opponent piece starts
+	 * @param oppSquare - square where opponent piece starts
 	 * @param oppPiece - opponent piece
 	 * @return true if more valuable opponent piece can be captured, false if not
 	 */
-	private boolean sacrifice(Board board, CompMove move, Spot[] compSpots, Spot moveEnd, Piece pieceMoved, Spot oppStart, Piece oppPiece) {
-		moveEnd.setPiece(oppPiece);
-		oppStart.setPiece(null);
-		
+	private boolean sacrifice(Board board, int moveEnd, Piece pieceMoved, int oppSquare, Piece oppPiece) {
 		int movedValue = pieceMoved.getValue();
 		int oppValue = oppPiece.getValue();
 		
 		boolean shouldSac = false;
 		if ((movedValue * 2) <= oppValue) {
-			for (int i = 0; i < compSpots.length; i++) {
-				if (compSpots[i] != null) {
-					Piece black = compSpots[i].getPiece();
-					if (black != null && black != pieceMoved && black.checkMove(board, this, compSpots[i], moveEnd)) {
-						shouldSac = true;
-					}
-				}
-			}
+			long occupied = board.getOccupied() & ~Bitboards.bit(oppSquare);
+			long recapture = board.attackersTo(moveEnd, occupied) & board.getColorPieces(this.whitePieces);
+			shouldSac = recapture != 0;
 		}
-		moveEnd.setPiece(pieceMoved);
-		oppStart.setPiece(oppPiece);
 		return shouldSac;
 	}
 	
@@ -348,177 +851,188 @@ public class ComputerPlayer extends Player {
 	 * From end location of first computer move, record next possible moves.
 	 * If one of the next possible moves puts computer in position to capture valuable piece,
 	 * add points to move score of initial move.
+	 * <p>
+	 * Next moves are generated into a preallocated buffer, so nothing is allocated.
 	 * 
-	 * @param board - chess board Object
-	 * @param move - computer move being made
-	 * @param start - starting spot for next possible moves (ending spot from first move)
+	 * @param board - chess board Object, with first move made
+	 * @param start - starting square for next possible moves (ending square from first move)
 	 * @param pieceMoved - computer piece being moved
+	 * @param nextMoves - buffer for next possible moves
+	 * @return points added to safety score
 	 */
-	private void assessAdvantage(Board board, CompMove move, Spot start, Piece pieceMoved) {
-		List<CompMove> nextMoves = new LinkedList<>();
-		PriorityQueue<CompMove> moveQueue = new PriorityQueue<>(Collections.reverseOrder());
-		checkPiece(board, nextMoves, start);
+	private int assessAdvantage(Board board, int start, Piece pieceMoved, int[] nextMoves) {
+		int count = MoveGenerator.generate(board, this.whitePieces, Bitboards.bit(start), false, nextMoves);
 		int movedValue = pieceMoved.getValue();
 		
-		Iterator<CompMove> iter = nextMoves.iterator();
-		while(iter.hasNext()) {
-			CompMove nextMove = iter.next();
-			Spot end = nextMove.getEnd();
-			System.out.println(end);
+		int bestScore = Integer.MIN_VALUE;
+		int bestMove = PackedMove.NO_MOVE;
+		for (int i = 0; i < count; i++) {
+			int nextMove = nextMoves[i];
+			if (Log.TRACE_ENABLED) {
+				Log.log(Log.TRACE, "next move " + PackedMove.toString(nextMove));
+			}
 			
-			checkCaptured(nextMove);
-			nextMoveDanger(board, nextMove, movedValue, end);
+			int score = CompMove.BASE_SCORE + checkCaptured(board, nextMove);
+			score += nextMoveDanger(board, nextMove, movedValue);
 			
-			moveQueue.offer(nextMove);
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = nextMove;
+			}
 		}
 		
-		if (!moveQueue.isEmpty()) {
-			CompMove bestMove = moveQueue.poll();
-			if (bestMove.getSafetyScore() > 5000) {
-				Piece captured = bestMove.getPieceCaptured();
-
-				if (captured != null) {
-					move.addToScore(50 * captured.getValue());
-				}
-			} 
+		if (bestScore > CompMove.BASE_SCORE && PackedMove.isCapture(bestMove)) {
+			return 50 * capturedValue(board, bestMove);
 		}
+		return 0;
 	}
 	
 	/**
 	 * Assesses danger of next moves computer can make.
+	 * <p>
+	 * Every opponent piece attacking the end square, defenders included, counts against the move.
 	 * 
 	 * @param board - chess board Object
-	 * @param nextMove - next move computer can make
+	 * @param nextMove - next packed move computer can make
 	 * @param compValue - value of computer piece
-	 * @param end - end location of next move
+	 * @return points added to next move's score
 	 */
-	private void nextMoveDanger(Board board, CompMove nextMove, int compValue, Spot end) {
-		for (int i = 0; i < oppSpots.length; i++) {
-			if (oppSpots[i] != null) {
-				Piece white = oppSpots[i].getPiece();
-				
-				if (white.checkMove(board, opponent, oppSpots[i], end)) {
-					nextMove.addToScore(((-100) * compValue));
-				}
-			}
-		}
+	private int nextMoveDanger(Board board, int nextMove, int compValue) {
+		int attackers = board.getAttackerCount(PackedMove.to(nextMove), !this.whitePieces);
+		return ((-100) * compValue) * attackers;
 	}	
 	
 	/**
 	 * Checks if other computer pieces are in danger.
+	 * <p>
+	 * Only computer pieces on squares the opponent attacks are looked at,
+	 * and their attackers come straight from the attack tables.
 	 * 
 	 * @param board - chess board Object
-	 * @param move - move being made
-	 * @param compSpots - array of all spots with computer (black) pieces
-	 * @param oppSpots - array of all spot with opponent (white) pieces
+	 * @param move - packed move being made
+	 * @return points added to safety score
 	 */
-	private void exposedPieceSafety(Board board, CompMove move, Spot[] compSpots, Spot[] oppSpots) {
-		Piece pieceMoved = move.getPieceMoved();
+	private int exposedPieceSafety(Board board, int move) {
+		int start = PackedMove.from(move);
+		int end = PackedMove.to(move);
+		Piece pieceMoved = board.getPiece(start);
 		int movedValue = pieceMoved.getValue();
-		Spot start = move.getStart();
-		Spot end = move.getEnd();
+		boolean oppWhite = !this.whitePieces;
 		
-		for (int i = 0; i < compSpots.length; i++) {
-			if (compSpots[i] != null) {
-				Piece black = compSpots[i].getPiece();
-				int compValue = black.getValue();
-				
-				int pieceValue = black.getValue();
+		int score = 0;
+		long opp = board.getColorPieces(oppWhite);
+		long threatened = board.getColorPieces(this.whitePieces) & board.getAttackedSquares(oppWhite);
+		
+		while (threatened != 0) {
+			int square = Bitboards.first(threatened);
+			int compValue = board.getPiece(square).getValue();
+			
+			long attackers = board.attackersTo(square, board.getOccupied()) & opp;
+			while (attackers != 0) {
+				int oppSquare = Bitboards.first(attackers);
+				Piece white = board.getPiece(oppSquare);
 				
-				for (int j = 0; j < oppSpots.length; j++) {
-					if (oppSpots[j] != null) {
-						Piece white = oppSpots[j].getPiece();
-						
-						if (white.checkMove(board, opponent, oppSpots[j], compSpots[i])) {
-							if (!start.equals(compSpots[j])) {
-								if (end.equals(oppSpots[j])) {
-									move.addToScore(50 * white.getValue());
-								} else if (checkProtection(board, move, compSpots[i], oppSpots[j], white)) {
-									if (movedValue < compValue) {
-										System.out.println("Entered5");
-										
-										move.addToScore(75 * compValue);
-									}
-								} else {
-									move.addToScore(((-25) * pieceValue));
-								}
-							} else {
-								checkVulnerable(board, move, start, pieceMoved, oppSpots[j], white);
+				if (square != start) {
+					if (end == oppSquare) {
+						score += 50 * white.getValue();
+					} else if (checkProtection(end, square, oppSquare)) {
+						if (movedValue < compValue) {
+							if (Log.TRACE_ENABLED) {
+								Log.log(Log.TRACE, "protects " + PackedMove.squareName(square) + " from " + PackedMove.squareName(oppSquare));
 							}
+							score += 75 * compValue;
 						}
+					} else {
+						score += ((-25) * compValue);
 					}
+				} else {
+					score += checkVulnerable(board, start, end, pieceMoved, oppSquare, white);
 				}
+				attackers &= attackers - 1;
 			}
+			threatened &= threatened - 1;
 		}
+		return score;
 	}
 	
 	/**
 	 * Checks if moving piece ends up protecting a piece behind it.
+	 * <p>
+	 * Protection means the move lands between the opponent piece and the computer piece.
 	 * 
-	 * @param board - chess board Object
-	 * @param move - move being made
-	 * @param compSpot - spot with computer piece
-	 * @param oppSpot - spot with opponent piece
-	 * @param oppPiece - opponent piece
+	 * @param moveEnd - square moving piece ends on
+	 * @param compSquare - square with computer piece
+	 * @param oppSquare - square with opponent piece attacking it
 	 * @return true if moving piece protects piece behind it, false if not
 	 */
-	private boolean checkProtection(Board board, CompMove move, Spot compSpot, Spot oppSpot, Piece oppPiece) {
-		Spot moveEnd = move.getEnd();
-		boolean canProtect = false;
-		
-		if (oppPiece.checkMove(board, opponent, oppSpot, compSpot)) {
-			moveEnd.setPiece(move.getPieceMoved());
-			
-			if (!oppPiece.checkMove(board, opponent, oppSpot, compSpot)) {				
-				canProtect = true;
-			}
-			moveEnd.setPiece(move.getPieceCaptured());
-		}
-		
-		return canProtect;
+	private boolean checkProtection(int moveEnd, int compSquare, int oppSquare) {
+		return (Bitboards.between(oppSquare, compSquare) & Bitboards.bit(moveEnd)) != 0;
 	}
 	
 	/**
 	 * Checks if the piece behind the moving piece gets put in danger.
+	 * <p>
+	 * Looks up what the opponent slider would attack through the vacated square,
+	 * using the occupancy the board will have after the move.
 	 * 
 	 * @param board - chess board Object
-	 * @param compStart - spot where computer piece starts
-	 * @param oppStart - spot where opponent piece starts
+	 * @param start - square computer piece starts on
+	 * @param end - square computer piece ends on
+	 * @param moved - computer piece being moved
+	 * @param oppSquare - square opponent piece is on
 	 * @param white - opponent piece
+	 * @return points added to safety score
 	 */
-	private void checkVulnerable(Board board, CompMove move, Spot compStart, Piece moved, Spot oppStart, Piece white) {
-		System.out.println("Entered 1");
+	private int checkVulnerable(Board board, int start, int end, Piece moved, int oppSquare, Piece white) {
+		if (Log.TRACE_ENABLED) {
+			Log.log(Log.TRACE, "moved piece attacked from " + PackedMove.squareName(oppSquare));
+		}
 		
-		if (white.checkMove(board, opponent, oppStart, compStart)) {
-			if (white instanceof Bishop || white instanceof Rook || white instanceof Queen) {
-				System.out.println("Entered 2");
-				compStart.setPiece(null);
-				
-				
-				int xStep = compStart.getX() - oppStart.getX();
-				xStep /= Math.abs(xStep);
-				
-				int yStep = compStart.getY() - oppStart.getY();
-				yStep /= Math.abs(yStep);
-				
-				System.out.println(xStep + " " + yStep);
-				
-				LinkedList<CompMove> intermediates = new LinkedList<>();
-				if (checkAcross(board, intermediates, white, oppStart, compStart.getX() + xStep, compStart.getY() + yStep, xStep, yStep)) {
-					System.out.println("Entered 3");
-					
-					compStart.setPiece(moved);
-					Piece captured = intermediates.getLast().getEnd().getPiece();
-					int capValue = captured.getValue();
-					if (capValue > compStart.getPiece().getValue()) {
-						System.out.println("Entered 4");
-						
-						move.addToScore((-25) * capValue);
+		int score = 0;
+		if (end != oppSquare && (white instanceof Bishop || white instanceof Rook || white instanceof Queen)) {
+			long startBit = Bitboards.bit(start);
+			long occupied = (board.getOccupied() & ~startBit) | Bitboards.bit(end);
+			long comp = (board.getColorPieces(this.whitePieces) & ~startBit) | Bitboards.bit(end);
+			long behind = Bitboards.attacks(white.getType(), white.getIsWhite(), oppSquare, occupied) & comp;
+			
+			while (behind != 0) {
+				int square = Bitboards.first(behind);
+				if ((Bitboards.between(oppSquare, square) & startBit) != 0) {
+					int capValue = square == end ? moved.getValue() : board.getPiece(square).getValue();
+					if (capValue > moved.getValue()) {
+						if (Log.TRACE_ENABLED) {
+							Log.log(Log.TRACE, "uncovers " + PackedMove.squareName(square) + " to " + white);
+						}
+						score += (-25) * capValue;
 					}
-				} else {
-					compStart.setPiece(moved);
 				}
-			} 
+				behind &= behind - 1;
+			}
+		}
+		return score;
+	}
+	
+	/**
+	 * Sorts moves by safety score, safest first.
+	 * <p>
+	 * Insertion sort over the parallel buffers keeps equal scores in generation order.
+	 * 
+	 * @param moves - buffer of packed moves
+	 * @param scores - buffer of safety scores
+	 * @param count - number of moves in buffer
+	 */
+	private void sortMoves(int[] moves, int[] scores, int count) {
+		for (int i = 1; i < count; i++) {
+			int move = moves[i];
+			int score = scores[i];
+			int j = i - 1;
+			while (j >= 0 && scores[j] < score) {
+				moves[j + 1] = moves[j];
+				scores[j + 1] = scores[j];
+				j--;
+			}
+			moves[j + 1] = move;
+			scores[j + 1] = score;
 		}
 	}
 	
@@ -531,40 +1045,35 @@ public class ComputerPlayer extends Player {
 	 * <p>
 	 * Having computer randomly choose between two safest moves prevents situations from playing out the same.
 	 * Also makes computer more capable of making mistakes.
+	 * <p>
+	 * Falls back to the safest move when there is nothing to choose between.
 	 * 
-	 * @return safest move of all possible moves
+	 * @param moves - buffer of packed moves sorted safest first
+	 * @param scores - buffer of safety scores
+	 * @param count - number of moves in buffer
+	 * @return safest move of all possible moves, NO_MOVE if there are none
 	 */
-	private Move getSafestMove() {
-		Object[] moves;
-		int options;
-		
+	private int getSafestMove(int[] moves, int[] scores, int count) {
+		if (count == 0) {
+			return PackedMove.NO_MOVE;
+		}
 		if (numMoves++ == 0) {
-			moves = safestMoves.toArray();
-			options = moves.length;
-		} else {
-			moves = new CompMove[15];
-			
-			int index = 0;
-			CompMove safest = safestMoves.poll();
-			while (index < moves.length && !safestMoves.isEmpty()) {
-				CompMove nextSafest = safestMoves.poll();
-				
-				double quotient = Math.abs(((double) safest.getSafetyScore()) / (nextSafest.getSafetyScore()));
-				int numToInclude = round(quotient);
-				for (int i = 0; i < numToInclude; i++) {
-					if (index < moves.length) {
-						moves[index++] = safest;
-					}
-				}
-				safest = nextSafest;
-			}
-			options = index;
+			return moves[random.nextInt(count)];
 		}
 		
-		Random rand = new Random();
-		int index = rand.nextInt(options);
+		int index = 0;
+		for (int next = 1; index < choices.length && next < count; next++) {
+			double quotient = Math.abs(((double) scores[next - 1]) / scores[next]);
+			int numToInclude = round(quotient);
+			for (int i = 0; i < numToInclude && index < choices.length; i++) {
+				choices[index++] = moves[next - 1];
+			}
+		}
 		
-		return (Move) moves[index];
+		if (index == 0) {
+			return moves[0];
+		}
+		return choices[random.nextInt(index)];
 	}
 	
 	/**
@@ -582,41 +1091,4 @@ public class ComputerPlayer extends Player {
 		}
 		return numToInclude;
 	}
-
-	/**
-	 * Finalizes move by changing piece locations, adding move to game moveTracker list, and updating piecesCaptured list.
-	 * 
-	 * @param move - move being made
-	 * @param moveTracker - list of all game's moves
-	 * @param piecesCaptured - list of all pieces captured
-	 */
-	private void makeMove(Move move, List<Move> moveTracker, List<Piece> piecesCaptured) {
-		Spot start = move.getStart();
-		Spot end = move.getEnd();
-		Piece temp = move.getPieceMoved();
-		Piece endPiece = end.getPiece();
-		
-		start.setPiece(null);
-		if (end.getPiece() != null) {
-			end.getPiece().setCaptured(true);
-		}
-		end.setPiece(temp);
-		
-		if (endPiece != null && endPiece.getCaptured() == true) {
-			piecesCaptured.add(endPiece);
-		}
-		moveTracker.add(move);
-	}
-	
-	/**
-	 * Clears computer and opponent spots, potential move list, and safest move priority queue.
-	 */
-	private void clearData() {
-		for (int i = 0; i < oppSpots.length; i++) {
-			oppSpots[i] = null;
-			compSpots[i] = null;
-		}
-		potentialMoves.clear();
-		safestMoves.clear();
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,209 @@
+package main;
+
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder events emitted by the engine.
+ * <p>
+ * Every event is disabled by default. Callers only create an event when isEnabled says
+ * a recording will take it, so while disabled a turn allocates nothing for events, even
+ * in code run too rarely for the JIT to remove the allocation.
+ * Turn them on in a recording settings file or on the command line, for example
+ * -XX:StartFlightRecording:settings=profile,+main.Turn#enabled=true,
+ * and they show up next to GC and JIT events in the same recording.
+ * <p>
+ * Fields are only filled in when shouldCommit says the event will be recorded,
+ * so move names are not built for events nobody reads.
+ *
+ * @author John Vnek
+ */
+public final class EngineEvents {
+
+	private static final ClassValue<EventType> TYPES = new ClassValue<EventType>() {
+		protected EventType computeValue(Class<?> type) {
+			return EventType.getEventType(type.asSubclass(Event.class));
+		}
+	};
+
+	/**
+	 * EngineEvents only groups the event classes and is never instantiated.
+	 */
+	private EngineEvents() {
+	}
+
+	/**
+	 * Checks if a running recording takes events of a type.
+	 * <p>
+	 * Flight Recorder is not started by asking, and without it no event type is enabled.
+	 *
+	 * @param type - event class
+	 * @return true if events of the type should be created
+	 */
+	public static boolean isEnabled(Class<? extends Event> type) {
+		return FlightRecorder.isInitialized() && TYPES.get(type).isEnabled();
+	}
+
+	/**
+	 * One computer turn, from move generation until the move is chosen.
+	 */
+	@Name("main.Turn")
+	@Label("Turn")
+	@Category({"Chess", "Engine"})
+	@Description("Computer turn with time spent in each phase")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class Turn extends Event {
+
+		@Label("White")
+		public boolean white;
+
+		@Label("Root Moves")
+		public int rootMoves;
+
+		@Label("Move")
+		public String move;
+
+		@Label("Depth")
+		public int depth;
+
+		@Label("Score")
+		public int score;
+
+		@Label("Nodes")
+		public long nodes;
+
+		@Label("Generation Time")
+		@Timespan(Timespan.NANOSECONDS)
+		public long generationTime;
+
+		@Label("Safety Time")
+		@Timespan(Timespan.NANOSECONDS)
+		public long safetyTime;
+
+		@Label("Search Time")
+		@Timespan(Timespan.NANOSECONDS)
+		public long searchTime;
+	}
+
+	/**
+	 * Safety scoring of one root move, split between its parts.
+	 */
+	@Name("main.MoveScoring")
+	@Label("Move Scoring")
+	@Category({"Chess", "Engine"})
+	@Description("Safety scoring of a root move by ComputerPlayer")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class MoveScoring extends Event {
+
+		@Label("Move")
+		public String move;
+
+		@Label("Score")
+		public int score;
+
+		@Label("Cached")
+		@Description("Score was found in the safety score cache")
+		public boolean cached;
+
+		@Label("Move Safety Time")
+		@Description("Time in moveSafety, including assessAdvantage")
+		@Timespan(Timespan.NANOSECONDS)
+		public long moveSafetyTime;
+
+		@Label("Advantage Time")
+		@Description("Time in assessAdvantage")
+		@Timespan(Timespan.NANOSECONDS)
+		public long advantageTime;
+
+		@Label("Exposed Piece Time")
+		@Description("Time in exposedPieceSafety")
+		@Timespan(Timespan.NANOSECONDS)
+		public long exposedPieceTime;
+	}
+
+	/**
+	 * One iterative deepening iteration of one search thread, aspiration re-searches included.
+	 */
+	@Name("main.Iteration")
+	@Label("Iteration")
+	@Category({"Chess", "Search"})
+	@Description("Iterative deepening iteration")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class Iteration extends Event {
+
+		@Label("Helper")
+		@Description("0 for the main search, LazySmp helper number otherwise")
+		public int helper;
+
+		@Label("Depth")
+		public int depth;
+
+		@Label("Score")
+		public int score;
+
+		@Label("Best Move")
+		public String bestMove;
+
+		@Label("Nodes")
+		@Description("Nodes searched by this thread so far")
+		public long nodes;
+
+		@Label("Re-searches")
+		@Description("Times the aspiration window failed and was widened")
+		public int researches;
+
+		@Label("Aborted")
+		public boolean aborted;
+	}
+
+	/**
+	 * Search of one root move at one depth.
+	 */
+	@Name("main.RootMove")
+	@Label("Root Move")
+	@Category({"Chess", "Search"})
+	@Description("Search of a root move")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class RootMove extends Event {
+
+		@Label("Helper")
+		public int helper;
+
+		@Label("Depth")
+		public int depth;
+
+		@Label("Move")
+		public String move;
+
+		@Label("Score")
+		public int score;
+
+		@Label("Nodes")
+		@Description("Nodes searched below this move")
+		public long nodes;
+	}
+
+	/**
+	 * Transposition table reallocation.
+	 */
+	@Name("main.TableResize")
+	@Label("Table Resize")
+	@Category({"Chess", "Engine"})
+	@Description("Transposition table reallocated")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class TableResize extends Event {
+
+		@Label("Megabytes")
+		public int megabytes;
+
+		@Label("Old Entries")
+		public int oldEntries;
+
+		@Label("New Entries")
+		public int newEntries;
+	}
+}
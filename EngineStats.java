@@ -0,0 +1,313 @@
+package main;
+
+import java.lang.management.*;
+import javax.management.*;
+
+/**
+ * Statistics of the computer's last turn, with running totals over every turn.
+ * <p>
+ * ComputerPlayer records a turn once it is over, and anything may read the numbers
+ * meanwhile: pull a consistent copy with snapshot, or register the object as an
+ * MBean so JMX clients can poll it. Every access is synchronized, which costs one
+ * uncontended lock per turn on the engine side.
+ *
+ * @author John Vnek
+ */
+public class EngineStats implements EngineStatsMBean {
+
+	public static final String DOMAIN = "main";
+
+	private long turns;
+	private long nodes;
+	private long quiescenceNodes;
+	private int depth;
+	private long tableProbes;
+	private long tableHits;
+	private long cutoffs;
+	private long firstMoveCutoffs;
+	private long moveGenerations;
+	private long evaluations;
+	private long pawnHits;
+	private long pawnMisses;
+	private long generationNanos;
+	private long safetyNanos;
+	private long searchNanos;
+	private long turnNanos;
+	private long totalNodes;
+	private long totalNanos;
+	private ObjectName name;
+
+	/**
+	 * Records a finished turn.
+	 *
+	 * @param search - search run this turn, null if the move was picked without searching
+	 * @param tableProbes - transposition table probes made this turn
+	 * @param tableHits - transposition table probes this turn that found their position
+	 * @param generationNanos - time spent generating root moves
+	 * @param safetyNanos - time spent scoring root moves for safety
+	 * @param searchNanos - time spent searching
+	 * @param turnNanos - time the whole turn took
+	 */
+	public synchronized void record(LazySmp search, long tableProbes, long tableHits,
+			long generationNanos, long safetyNanos, long searchNanos, long turnNanos) {
+		Search main = search == null ? null : search.getMainSearch();
+		this.turns++;
+		this.nodes = search == null ? 0 : search.getNodes();
+		this.quiescenceNodes = main == null ? 0 : main.getQuiescenceNodes();
+		this.depth = main == null ? 0 : main.getCompletedDepth();
+		this.tableProbes = tableProbes;
+		this.tableHits = tableHits;
+		this.cutoffs = main == null ? 0 : main.getCutoffs();
+		this.firstMoveCutoffs = main == null ? 0 : main.getFirstMoveCutoffs();
+		this.moveGenerations = search == null ? 0 : search.getMoveGenerations();
+		this.evaluations = search == null ? 0 : search.getEvaluations();
+		this.pawnHits = search == null ? 0 : search.getPawnHits();
+		this.pawnMisses = search == null ? 0 : search.getPawnMisses();
+		this.generationNanos = generationNanos;
+		this.safetyNanos = safetyNanos;
+		this.searchNanos = searchNanos;
+		this.turnNanos = turnNanos;
+		this.totalNodes += nodes;
+		this.totalNanos += turnNanos;
+	}
+
+	/**
+	 * Copies the current numbers, so they can be read together without changing under the reader.
+	 *
+	 * @return unregistered copy
+	 */
+	public synchronized EngineStats snapshot() {
+		EngineStats copy = new EngineStats();
+		copy.turns = turns;
+		copy.nodes = nodes;
+		copy.quiescenceNodes = quiescenceNodes;
+		copy.depth = depth;
+		copy.tableProbes = tableProbes;
+		copy.tableHits = tableHits;
+		copy.cutoffs = cutoffs;
+		copy.firstMoveCutoffs = firstMoveCutoffs;
+		copy.moveGenerations = moveGenerations;
+		copy.evaluations = evaluations;
+		copy.pawnHits = pawnHits;
+		copy.pawnMisses = pawnMisses;
+		copy.generationNanos = generationNanos;
+		copy.safetyNanos = safetyNanos;
+		copy.searchNanos = searchNanos;
+		copy.turnNanos = turnNanos;
+		copy.totalNodes = totalNodes;
+		copy.totalNanos = totalNanos;
+		return copy;
+	}
+
+	/**
+	 * Registers with the platform MBean server as main:type=EngineStats,name=name.
+	 * <p>
+	 * Registering again under a name already taken replaces the earlier registration.
+	 *
+	 * @param statsName - name telling this player's statistics apart
+	 */
+	public synchronized void register(String statsName) {
+		unregister();
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(DOMAIN + ":type=EngineStats,name=" + ObjectName.quote(statsName));
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(this, objectName);
+			this.name = objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not register engine statistics", e);
+		}
+	}
+
+	/**
+	 * Removes registration with the platform MBean server, if any.
+	 */
+	public synchronized void unregister() {
+		if (name == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		} catch (JMException e) {
+			// Already gone, which is all unregistering asks for
+		}
+		name = null;
+	}
+
+	/**
+	 * Getter for number of turns recorded.
+	 *
+	 * @return turn count
+	 */
+	public synchronized long getTurns() {
+		return turns;
+	}
+
+	/**
+	 * Getter for positions searched in the last turn, by every thread.
+	 *
+	 * @return node count
+	 */
+	public synchronized long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Getter for quiescence positions searched in the last turn by the main thread.
+	 *
+	 * @return quiescence node count
+	 */
+	public synchronized long getQuiescenceNodes() {
+		return quiescenceNodes;
+	}
+
+	/**
+	 * Getter for search speed of the last turn.
+	 *
+	 * @return nodes per second of search phase, 0 if no search ran
+	 */
+	public synchronized long getNodesPerSecond() {
+		return searchNanos == 0 ? 0 : nodes * 1000000000L / searchNanos;
+	}
+
+	/**
+	 * Getter for depth the last turn's search completed.
+	 *
+	 * @return depth in plies, 0 if no search ran
+	 */
+	public synchronized int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Getter for transposition table hit rate of the last turn.
+	 *
+	 * @return hit rate between 0 and 1
+	 */
+	public synchronized double getTableHitRate() {
+		return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+	}
+
+	/**
+	 * Getter for beta cutoffs of the last turn's main search.
+	 *
+	 * @return cutoff count
+	 */
+	public synchronized long getCutoffs() {
+		return cutoffs;
+	}
+
+	/**
+	 * Getter for share of cutoffs made by the first move searched.
+	 *
+	 * @return rate between 0 and 1
+	 */
+	public synchronized double getFirstMoveCutoffRate() {
+		return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+	}
+
+	/**
+	 * Getter for move generator calls in the last turn's search, by every thread.
+	 *
+	 * @return call count
+	 */
+	public synchronized long getMoveGenerations() {
+		return moveGenerations;
+	}
+
+	/**
+	 * Getter for evaluation calls in the last turn's search, by every thread.
+	 *
+	 * @return call count
+	 */
+	public synchronized long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Getter for pawn hash table lookups of the last turn's search that ran the pawn analysis, by every thread.
+	 *
+	 * @return miss count
+	 */
+	public synchronized long getPawnTableMisses() {
+		return pawnMisses;
+	}
+
+	/**
+	 * Getter for pawn hash table hit rate of the last turn's search, by every thread.
+	 *
+	 * @return hit rate between 0 and 1
+	 */
+	public synchronized double getPawnTableHitRate() {
+		long probes = pawnHits + pawnMisses;
+		return probes == 0 ? 0 : (double) pawnHits / probes;
+	}
+
+	/**
+	 * Getter for time the last turn spent generating root moves.
+	 *
+	 * @return nanoseconds
+	 */
+	public synchronized long getGenerationNanos() {
+		return generationNanos;
+	}
+
+	/**
+	 * Getter for time the last turn spent scoring root moves for safety.
+	 *
+	 * @return nanoseconds
+	 */
+	public synchronized long getSafetyNanos() {
+		return safetyNanos;
+	}
+
+	/**
+	 * Getter for time the last turn spent searching.
+	 *
+	 * @return nanoseconds
+	 */
+	public synchronized long getSearchNanos() {
+		return searchNanos;
+	}
+
+	/**
+	 * Getter for time the last turn took in all.
+	 *
+	 * @return nanoseconds
+	 */
+	public synchronized long getTurnNanos() {
+		return turnNanos;
+	}
+
+	/**
+	 * Getter for positions searched over every turn recorded.
+	 *
+	 * @return node count
+	 */
+	public synchronized long getTotalNodes() {
+		return totalNodes;
+	}
+
+	/**
+	 * Getter for time taken by every turn recorded.
+	 *
+	 * @return nanoseconds
+	 */
+	public synchronized long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * One line summary of the last turn.
+	 *
+	 * @return String of the main numbers
+	 */
+	public synchronized String toString() {
+		return String.format("depth %d nodes %d nps %d tt %.1f%% first cut %.1f%% movegen %d eval %d pawn %.1f%%"
+				+ " time gen %d us safety %d us search %d us turn %d us",
+				depth, nodes, getNodesPerSecond(), 100 * getTableHitRate(), 100 * getFirstMoveCutoffRate(),
+				moveGenerations, evaluations, 100 * getPawnTableHitRate(), generationNanos / 1000, safetyNanos / 1000, searchNanos / 1000, turnNanos / 1000);
+	}
+}
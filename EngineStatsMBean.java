@@ -0,0 +1,135 @@
+package main;
+
+/**
+ * Management interface of EngineStats, read by JMX clients such as dashboards.
+ *
+ * @author John Vnek
+ */
+public interface EngineStatsMBean {
+
+	/**
+	 * Getter for number of turns recorded.
+	 *
+	 * @return turn count
+	 */
+	long getTurns();
+
+	/**
+	 * Getter for positions searched in the last turn, by every thread.
+	 *
+	 * @return node count
+	 */
+	long getNodes();
+
+	/**
+	 * Getter for quiescence positions searched in the last turn by the main thread.
+	 *
+	 * @return quiescence node count
+	 */
+	long getQuiescenceNodes();
+
+	/**
+	 * Getter for search speed of the last turn.
+	 *
+	 * @return nodes per second of search phase
+	 */
+	long getNodesPerSecond();
+
+	/**
+	 * Getter for depth the last turn's search completed.
+	 *
+	 * @return depth in plies, 0 if no search ran
+	 */
+	int getDepth();
+
+	/**
+	 * Getter for transposition table hit rate of the last turn.
+	 *
+	 * @return hit rate between 0 and 1
+	 */
+	double getTableHitRate();
+
+	/**
+	 * Getter for beta cutoffs of the last turn's main search.
+	 *
+	 * @return cutoff count
+	 */
+	long getCutoffs();
+
+	/**
+	 * Getter for share of cutoffs made by the first move searched.
+	 *
+	 * @return rate between 0 and 1
+	 */
+	double getFirstMoveCutoffRate();
+
+	/**
+	 * Getter for move generator calls in the last turn's search, by every thread.
+	 *
+	 * @return call count
+	 */
+	long getMoveGenerations();
+
+	/**
+	 * Getter for evaluation calls in the last turn's search, by every thread.
+	 *
+	 * @return call count
+	 */
+	long getEvaluations();
+
+	/**
+	 * Getter for pawn hash table lookups of the last turn's search that ran the pawn analysis, by every thread.
+	 *
+	 * @return miss count
+	 */
+	long getPawnTableMisses();
+
+	/**
+	 * Getter for pawn hash table hit rate of the last turn's search, by every thread.
+	 *
+	 * @return hit rate between 0 and 1
+	 */
+	double getPawnTableHitRate();
+
+	/**
+	 * Getter for time the last turn spent generating root moves.
+	 *
+	 * @return nanoseconds
+	 */
+	long getGenerationNanos();
+
+	/**
+	 * Getter for time the last turn spent scoring root moves for safety.
+	 *
+	 * @return nanoseconds
+	 */
+	long getSafetyNanos();
+
+	/**
+	 * Getter for time the last turn spent searching.
+	 *
+	 * @return nanoseconds
+	 */
+	long getSearchNanos();
+
+	/**
+	 * Getter for time the last turn took in all.
+	 *
+	 * @return nanoseconds
+	 */
+	long getTurnNanos();
+
+	/**
+	 * Getter for positions searched over every turn recorded.
+	 *
+	 * @return node count
+	 */
+	long getTotalNodes();
+
+	/**
+	 * Getter for time taken by every turn recorded.
+	 *
+	 * @return nanoseconds
+	 */
+	long getTotalNanos();
+}
@@ -0,0 +1,422 @@
+package main;
+
+/**
+ * Static evaluation of a position from material and piece-square tables.
+ * <p>
+ * Each piece on a square is worth its material plus a middlegame and an endgame
+ * bonus for that square. Material is in hundredths of a pawn, with its own values
+ * rather than the game's Piece.getValue points, so trades are weighed the way
+ * engines usually weigh them. Board keeps the sums for each color up to date as pieces
+ * are added and removed, along with a game phase counted from the minor and major
+ * pieces left. Evaluating blends the middlegame and endgame sums by phase,
+ * so it reads a few running totals instead of scanning the board.
+ * <p>
+ * Pawn structure (doubled, isolated, backward and passed pawns) costs the most to
+ * work out and changes the least, so it is cached in a PawnHashTable by pawn key.
+ * King pawn shields and blocked passed pawns depend on other pieces and are
+ * added on every call, reusing the cached passed pawns.
+ * <p>
+ * Tables are written from white's side with rank 8 on the first row,
+ * the way a board diagram is printed; black squares are mirrored.
+ *
+ * @author John Vnek
+ */
+public final class Evaluation {
+
+	public static final int MAX_PHASE = 24;
+
+	private static final int BISHOP_PAIR = 30;
+	private static final int TEMPO = 10;
+	private static final int[] PHASE = {0, 1, 1, 2, 4, 0};
+	private static final int[] MATERIAL = {100, 320, 330, 500, 900, 0};
+
+	private static final int DOUBLED_MG = 10;
+	private static final int DOUBLED_EG = 20;
+	private static final int ISOLATED_MG = 10;
+	private static final int ISOLATED_EG = 15;
+	private static final int BACKWARD_MG = 8;
+	private static final int BACKWARD_EG = 10;
+	private static final int BLOCKED_PASSED_EG = 20;
+	private static final int SHIELD_MG = 10;
+	private static final int[] PASSED_MG = {0, 5, 10, 15, 25, 40, 60, 0};
+	private static final int[] PASSED_EG = {0, 10, 20, 35, 60, 90, 130, 0};
+
+	private static final int[] PAWN_MG = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 50,  50,  50,  50,  50,  50,  50,  50,
+		 10,  10,  20,  30,  30,  20,  10,  10,
+		  5,   5,  10,  25,  25,  10,   5,   5,
+		  0,   0,   0,  20,  20,   0,   0,   0,
+		  5,  -5, -10,   0,   0, -10,  -5,   5,
+		  5,  10,  10, -20, -20,  10,  10,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0,
+	};
+
+	private static final int[] PAWN_EG = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 80,  80,  80,  80,  80,  80,  80,  80,
+		 50,  50,  50,  50,  50,  50,  50,  50,
+		 30,  30,  30,  30,  30,  30,  30,  30,
+		 15,  15,  15,  15,  15,  15,  15,  15,
+		  5,   5,   5,   5,   5,   5,   5,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  0,   0,   0,   0,   0,   0,   0,   0,
+	};
+
+	private static final int[] KNIGHT = {
+		-50, -40, -30, -30, -30, -30, -40, -50,
+		-40, -20,   0,   0,   0,   0, -20, -40,
+		-30,   0,  10,  15,  15,  10,   0, -30,
+		-30,   5,  15,  20,  20,  15,   5, -30,
+		-30,   0,  15,  20,  20,  15,   0, -30,
+		-30,   5,  10,  15,  15,  10,   5, -30,
+		-40, -20,   0,   5,   5,   0, -20, -40,
+		-50, -40, -30, -30, -30, -30, -40, -50,
+	};
+
+	private static final int[] BISHOP = {
+		-20, -10, -10, -10, -10, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,  10,  10,   5,   0, -10,
+		-10,   5,   5,  10,  10,   5,   5, -10,
+		-10,   0,  10,  10,  10,  10,   0, -10,
+		-10,  10,  10,  10,  10,  10,  10, -10,
+		-10,   5,   0,   0,   0,   0,   5, -10,
+		-20, -10, -10, -10, -10, -10, -10, -20,
+	};
+
+	private static final int[] ROOK = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  5,  10,  10,  10,  10,  10,  10,   5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		  0,   0,   0,   5,   5,   0,   0,   0,
+	};
+
+	private static final int[] QUEEN = {
+		-20, -10, -10,  -5,  -5, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,   5,   5,   5,   0, -10,
+		 -5,   0,   5,   5,   5,   5,   0,  -5,
+		  0,   0,   5,   5,   5,   5,   0,  -5,
+		-10,   5,   5,   5,   5,   5,   0, -10,
+		-10,   0,   5,   0,   0,   0,   0, -10,
+		-20, -10, -10,  -5,  -5, -10, -10, -20,
+	};
+
+	private static final int[] KING_MG = {
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-20, -30, -30, -40, -40, -30, -30, -20,
+		-10, -20, -20, -20, -20, -20, -20, -10,
+		 20,  20,   0,   0,   0,   0,  20,  20,
+		 20,  30,  10,   0,   0,  10,  30,  20,
+	};
+
+	private static final int[] KING_EG = {
+		-50, -40, -30, -20, -20, -30, -40, -50,
+		-30, -20, -10,   0,   0, -10, -20, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -30,   0,   0,   0,   0, -30, -30,
+		-50, -30, -30, -30, -30, -30, -30, -50,
+	};
+
+	private static final int[][] MG = new int[2 * Piece.NUM_TYPES][64];
+	private static final int[][] EG = new int[2 * Piece.NUM_TYPES][64];
+	private static final long[] ADJACENT_FILES = new long[8];
+	private static final long[][] PASSED_MASKS = new long[2][64];
+	private static final long[][] SUPPORT_MASKS = new long[2][64];
+	private static final long[][] SHIELD_MASKS = new long[2][64];
+
+	static {
+		for (int col = 0; col < 8; col++) {
+			ADJACENT_FILES[col] = (col > 0 ? Bitboards.FILE_A << (col - 1) : 0)
+					| (col < 7 ? Bitboards.FILE_A << (col + 1) : 0);
+		}
+		for (int square = 0; square < 64; square++) {
+			int col = Bitboards.col(square);
+			int row = Bitboards.row(square);
+			long files = ADJACENT_FILES[col] | (Bitboards.FILE_A << col);
+			for (int other = 0; other < 64; other++) {
+				long bit = Bitboards.bit(other);
+				int otherRow = Bitboards.row(other);
+				if ((files & bit) != 0) {
+					PASSED_MASKS[0][square] |= otherRow > row ? bit : 0;
+					PASSED_MASKS[1][square] |= otherRow < row ? bit : 0;
+					SHIELD_MASKS[0][square] |= otherRow == row + 1 || otherRow == row + 2 ? bit : 0;
+					SHIELD_MASKS[1][square] |= otherRow == row - 1 || otherRow == row - 2 ? bit : 0;
+				}
+				if ((ADJACENT_FILES[col] & bit) != 0) {
+					SUPPORT_MASKS[0][square] |= otherRow <= row ? bit : 0;
+					SUPPORT_MASKS[1][square] |= otherRow >= row ? bit : 0;
+				}
+			}
+		}
+
+		int[][] mgTables = {PAWN_MG, KNIGHT, BISHOP, ROOK, QUEEN, KING_MG};
+		int[][] egTables = {PAWN_EG, KNIGHT, BISHOP, ROOK, QUEEN, KING_EG};
+		for (int type = Piece.PAWN; type < Piece.NUM_TYPES; type++) {
+			for (int square = 0; square < 64; square++) {
+				int white = Piece.index(type, true);
+				int black = Piece.index(type, false);
+				MG[white][square] = MATERIAL[type] + mgTables[type][square ^ 56];
+				EG[white][square] = MATERIAL[type] + egTables[type][square ^ 56];
+				MG[black][square] = MATERIAL[type] + mgTables[type][square];
+				EG[black][square] = MATERIAL[type] + egTables[type][square];
+			}
+		}
+	}
+
+	/**
+	 * Evaluation is a collection of static tables and is never instantiated.
+	 */
+	private Evaluation() {
+	}
+
+	/**
+	 * Evaluates position on the board without searching or caching pawn structure.
+	 *
+	 * @param board - chess board Object
+	 * @return score from side to move's point of view, in hundredths of a pawn
+	 */
+	public static int evaluate(Board board) {
+		return evaluate(board, null);
+	}
+
+	/**
+	 * Evaluates position on the board without searching.
+	 * <p>
+	 * Blends the board's running middlegame and endgame sums, plus pawn structure,
+	 * by game phase, then adds the few terms that are cheaper to work out when needed:
+	 * pawn shields, blocked passed pawns, the bishop pair and having the move.
+	 * A side without a king has lost.
+	 *
+	 * @param board - chess board Object
+	 * @param pawnTable - cache of pawn structure, null to always analyze pawns
+	 * @return score from side to move's point of view, in hundredths of a pawn
+	 */
+	public static int evaluate(Board board, PawnHashTable pawnTable) {
+		boolean white = board.isWhiteToMove();
+		if (board.getPieces(Piece.KING, white) == 0) {
+			return -Search.MATE;
+		}
+		int mg = board.getMiddlegameScore(true) - board.getMiddlegameScore(false);
+		int eg = board.getEndgameScore(true) - board.getEndgameScore(false);
+
+		long key = board.pawnHash();
+		int slot = pawnTable == null ? PawnHashTable.NO_SLOT : pawnTable.probe(key);
+		long passed;
+		if (slot != PawnHashTable.NO_SLOT) {
+			mg += pawnTable.getMiddlegame(slot);
+			eg += pawnTable.getEndgame(slot);
+			passed = pawnTable.getPassed(slot);
+		} else {
+			int structure = pawnStructure(board, true) - pawnStructure(board, false);
+			passed = passedPawns(board, true) | passedPawns(board, false);
+			mg += middlegameOf(structure);
+			eg += endgameOf(structure);
+			if (pawnTable != null) {
+				pawnTable.store(key, middlegameOf(structure), endgameOf(structure), passed);
+			}
+		}
+
+		mg += shield(board, true) - shield(board, false);
+		eg += blockedPassed(board, passed, false) - blockedPassed(board, passed, true);
+		int phase = Math.min(board.getPhase(), MAX_PHASE);
+		int score = (mg * phase + eg * (MAX_PHASE - phase)) / MAX_PHASE;
+
+		score += bishopPair(board, true) - bishopPair(board, false);
+		return (white ? score : -score) + TEMPO;
+	}
+
+	/**
+	 * Scores pawn structure of one color: doubled, isolated, backward and passed pawns.
+	 *
+	 * @param board - chess board Object
+	 * @param isWhite - color of pawns
+	 * @return middlegame and endgame scores packed into one int
+	 */
+	private static int pawnStructure(Board board, boolean isWhite) {
+		int color = isWhite ? 0 : 1;
+		long own = board.getPieces(Piece.PAWN, isWhite);
+		long enemy = board.getPieces(Piece.PAWN, !isWhite);
+		int mg = 0;
+		int eg = 0;
+
+		for (int col = 0; col < 8; col++) {
+			int onFile = Bitboards.count(own & (Bitboards.FILE_A << col));
+			if (onFile > 1) {
+				mg -= DOUBLED_MG * (onFile - 1);
+				eg -= DOUBLED_EG * (onFile - 1);
+			}
+		}
+
+		long pawns = own;
+		while (pawns != 0) {
+			int square = Bitboards.first(pawns);
+			int col = Bitboards.col(square);
+			if ((own & ADJACENT_FILES[col]) == 0) {
+				mg -= ISOLATED_MG;
+				eg -= ISOLATED_EG;
+			} else if ((own & SUPPORT_MASKS[color][square]) == 0) {
+				int stop = isWhite ? square + 8 : square - 8;
+				if ((Bitboards.pawnAttacks(isWhite, stop) & enemy) != 0) {
+					mg -= BACKWARD_MG;
+					eg -= BACKWARD_EG;
+				}
+			}
+			if ((enemy & PASSED_MASKS[color][square]) == 0) {
+				int rank = isWhite ? Bitboards.row(square) : 7 - Bitboards.row(square);
+				mg += PASSED_MG[rank];
+				eg += PASSED_EG[rank];
+			}
+			pawns &= pawns - 1;
+		}
+		return pack(mg, eg);
+	}
+
+	/**
+	 * Finds passed pawns of one color, those with no enemy pawn ahead on their own or an adjacent file.
+	 *
+	 * @param board - chess board Object
+	 * @param isWhite - color of pawns
+	 * @return bitboard of passed pawns
+	 */
+	private static long passedPawns(Board board, boolean isWhite) {
+		int color = isWhite ? 0 : 1;
+		long enemy = board.getPieces(Piece.PAWN, !isWhite);
+		long passed = 0;
+		long pawns = board.getPieces(Piece.PAWN, isWhite);
+		while (pawns != 0) {
+			int square = Bitboards.first(pawns);
+			if ((enemy & PASSED_MASKS[color][square]) == 0) {
+				passed |= Bitboards.bit(square);
+			}
+			pawns &= pawns - 1;
+		}
+		return passed;
+	}
+
+	/**
+	 * Gets shield bonus for own pawns on the two ranks in front of a color's king.
+	 *
+	 * @param board - chess board Object
+	 * @param isWhite - color of king
+	 * @return middlegame bonus
+	 */
+	private static int shield(Board board, boolean isWhite) {
+		long king = board.getPieces(Piece.KING, isWhite);
+		if (king == 0) {
+			return 0;
+		}
+		long shield = SHIELD_MASKS[isWhite ? 0 : 1][Bitboards.first(king)] & board.getPieces(Piece.PAWN, isWhite);
+		return SHIELD_MG * Bitboards.count(shield);
+	}
+
+	/**
+	 * Gets penalty for passed pawns of a color whose next square is occupied.
+	 *
+	 * @param board - chess board Object
+	 * @param passed - passed pawns of both colors
+	 * @param isWhite - color of pawns
+	 * @return endgame penalty
+	 */
+	private static int blockedPassed(Board board, long passed, boolean isWhite) {
+		long pawns = passed & board.getPieces(Piece.PAWN, isWhite);
+		long stops = isWhite ? pawns << 8 : pawns >>> 8;
+		return BLOCKED_PASSED_EG * Bitboards.count(stops & board.getOccupied());
+	}
+
+	/**
+	 * Packs middlegame and endgame scores into one int, so both can be added at once.
+	 *
+	 * @param mg - middlegame score
+	 * @param eg - endgame score
+	 * @return packed scores
+	 */
+	private static int pack(int mg, int eg) {
+		return (mg << 16) + eg;
+	}
+
+	/**
+	 * Unpacks middlegame score.
+	 *
+	 * @param packed - packed scores
+	 * @return middlegame score
+	 */
+	private static int middlegameOf(int packed) {
+		return (packed + 0x8000) >> 16;
+	}
+
+	/**
+	 * Unpacks endgame score.
+	 *
+	 * @param packed - packed scores
+	 * @return endgame score
+	 */
+	private static int endgameOf(int packed) {
+		return (short) packed;
+	}
+
+	/**
+	 * Gets bishop pair bonus of one color.
+	 *
+	 * @param board - chess board Object
+	 * @param isWhite - color to check
+	 * @return bonus if color has two or more bishops, 0 if not
+	 */
+	private static int bishopPair(Board board, boolean isWhite) {
+		long bishops = board.getPieces(Piece.BISHOP, isWhite);
+		return (bishops & (bishops - 1)) != 0 ? BISHOP_PAIR : 0;
+	}
+
+	/**
+	 * Getter for middlegame worth of piece on square, material included.
+	 *
+	 * @param index - bitboard index of piece
+	 * @param square - square index
+	 * @return worth in hundredths of a pawn
+	 */
+	public static int middlegame(int index, int square) {
+		return MG[index][square];
+	}
+
+	/**
+	 * Getter for endgame worth of piece on square, material included.
+	 *
+	 * @param index - bitboard index of piece
+	 * @param square - square index
+	 * @return worth in hundredths of a pawn
+	 */
+	public static int endgame(int index, int square) {
+		return EG[index][square];
+	}
+
+	/**
+	 * Getter for how much a piece type counts toward the game phase.
+	 *
+	 * @param type - piece type constant
+	 * @return phase weight, 0 for pawns and kings
+	 */
+	public static int phase(int type) {
+		return PHASE[type];
+	}
+
+	/**
+	 * Getter for material value of piece type.
+	 *
+	 * @param type - piece type constant
+	 * @return value in hundredths of a pawn, 0 for kings
+	 */
+	public static int material(int type) {
+		return MATERIAL[type];
+	}
+}
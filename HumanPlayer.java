@@ -45,12 +45,10 @@ public class HumanPlayer extends Player {
 			System.out.print("Y: ");
 			int endY = input.nextInt();
 			
-			turnTaken = playerMove(board, startX, startY, endX, endY, piecesCaptured);
+			turnTaken = playerMove(board, startX, startY, endX, endY, moveTracker, piecesCaptured);
 			
 			if (turnTaken == false) {
 				System.out.println("\nInvalid move, try again\n");
-			} else {
-				moveTracker.add(new Move(this, board.getSpot(startX, startY), board.getSpot(endX, endY)));
 			}
 		}
 	}
@@ -63,10 +61,11 @@ public class HumanPlayer extends Player {
 	 * @param row1 - y coordinate of first spot
 	 * @param col2 - x coordinate of second spot
 	 * @param row2 - y coordinate of second spot
+	 * @param moveTracker - list of all game's moves
 	 * @param piecesCaptured - list of all pieces captured
 	 * @return true if valid move can be made, false if not
 	 */
-	private boolean playerMove(Board board, int col1, int row1, int col2, int row2, List<Piece> piecesCaptured) {
+	private boolean playerMove(Board board, int col1, int row1, int col2, int row2, List<Move> moveTracker, List<Piece> piecesCaptured) {
 		
 		if(!checkBounds(col1, row1, col2, row2)) {
 			return false;
@@ -76,21 +75,11 @@ public class HumanPlayer extends Player {
 		Spot end = board.getSpot(col2, row2);
 		
 		Piece startPiece = start.getPiece();
-		Piece endPiece = end.getPiece();
 		
-		if (!startPiece.checkMove(board, this, start, end)) {
+		if (startPiece == null || !startPiece.checkMove(board, this, start, end)) {
 			return false;
 		} else {
-			Piece temp = start.getPiece();
-			start.setPiece(null);
-			if (end.getPiece() != null) {
-				end.getPiece().setCaptured(true);
-			}
-			end.setPiece(temp);
-			
-			if (endPiece != null && endPiece.getCaptured() == true) {
-				piecesCaptured.add(endPiece);
-			}
+			playMove(board, new Move(this, start, end), moveTracker, piecesCaptured);
 			return true;
 		}
 	}
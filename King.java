@@ -17,11 +17,13 @@ public class King extends Piece {
 	 * @param isWhite - true if white, false if not
 	 */
 	public King(boolean isWhite) {
-		super(isWhite, 25);
+		super(isWhite, 25, KING);
 	}
 
 	/**
-	 * Checks if inputted move is valid move for Bishop.
+	 * Checks if inputted move is valid move for King.
+	 * <p>
+	 * King may step along a row or column, and only steps diagonally to capture.
 	 * 
 	 * @param board - chess board Object
 	 * @param start - spot where piece starts
@@ -32,14 +34,13 @@ public class King extends Piece {
 			return false;
 		}
 		
-		int xDiff = Math.abs(end.getX() - start.getX());
-		int yDiff = Math.abs(end.getY() - start.getY());
-		
-		if (xDiff == 1 && yDiff == 1 && end.getPiece() != null && end.getPiece().getIsWhite() != this.isWhite) {
-			return true;
+		int from = Bitboards.square(start.getX(), start.getY());
+		int to = Bitboards.square(end.getX(), end.getY());
+		if ((Bitboards.kingAttacks(from) & Bitboards.bit(to)) == 0) {
+			return false;
 		}
 		
-		return xDiff + yDiff == 1;
+		return end.getPiece() != null || start.getX() == end.getX() || start.getY() == end.getY();
 	}
 
 	/**
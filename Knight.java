@@ -17,11 +17,13 @@ public class Knight extends Piece {
 	 * @param isWhite - true if white, false if not
 	 */
 	public Knight(boolean isWhite) {
-		super(isWhite, 4);
+		super(isWhite, 4, KNIGHT);
 	}
 	
 	/**
 	 * Checks if inputted move is valid move for Knight.
+	 * <p>
+	 * Looks up the squares a knight attacks from start in the precomputed table.
 	 * 
 	 * @param board - chess board Object
 	 * @param start - spot where piece starts
@@ -32,10 +34,9 @@ public class Knight extends Piece {
 			return false;
 		}
 		
-		int xDiff = Math.abs(end.getX() - start.getX());
-		int yDiff = Math.abs(end.getY() - start.getY());
-		
-		return xDiff * yDiff == 2;
+		int from = Bitboards.square(start.getX(), start.getY());
+		int to = Bitboards.square(end.getX(), end.getY());
+		return (Bitboards.knightAttacks(from) & Bitboards.bit(to)) != 0;
 	}
 
 	/**
@@ -0,0 +1,248 @@
+package main;
+
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Runs one Search per thread over the same root, sharing a transposition table.
+ * <p>
+ * Helper threads search private copies of the board with varied start depths and
+ * root move orders. They only help through the entries they leave in the table;
+ * the main search on the calling thread decides the move. Once it finishes,
+ * the helpers are stopped through the shared time manager and waited for.
+ *
+ * @author John Vnek
+ */
+public class LazySmp {
+
+	public static final int MAX_THREADS = 256;
+
+	private TranspositionTable table;
+	private Bitbases bitbases;
+	private Consumer<Search> iterationListener;
+	private Search[] searches;
+	private Board[] boards;
+	private int[][] rootMoves;
+	private Future<?>[] helpers;
+	private ExecutorService pool;
+
+	/**
+	 * Constructor for LazySmp.
+	 *
+	 * @param table - transposition table shared by every thread
+	 * @param threads - number of search threads, including the calling thread
+	 */
+	public LazySmp(TranspositionTable table, int threads) {
+		this.table = table;
+		setThreads(threads);
+	}
+
+	/**
+	 * Sets number of search threads, replacing the helper pool.
+	 * <p>
+	 * Must not be called while a search is running.
+	 *
+	 * @param threads - number of search threads, including the calling thread
+	 */
+	public void setThreads(int threads) {
+		threads = Math.max(1, Math.min(threads, MAX_THREADS));
+		shutdown();
+		this.searches = new Search[threads];
+		this.boards = new Board[threads];
+		this.rootMoves = new int[threads][];
+		this.helpers = new Future<?>[threads];
+		for (int i = 0; i < threads; i++) {
+			searches[i] = new Search(table);
+			searches[i].setHelper(i);
+			searches[i].setBitbases(bitbases);
+			if (i == 0) {
+				searches[i].setIterationListener(iterationListener);
+			} else {
+				boards[i] = new Board();
+				rootMoves[i] = new int[MoveGenerator.MAX_MOVES];
+			}
+		}
+		if (threads > 1) {
+			this.pool = Executors.newFixedThreadPool(threads - 1, runnable -> {
+				Thread thread = new Thread(runnable, "search-helper");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Searches root moves on every thread until max depth or time runs out.
+	 *
+	 * @param board - chess board Object, side to move is the side searching
+	 * @param moves - legal packed moves, best guess first
+	 * @param count - number of root moves
+	 * @param maxDepth - deepest iteration in plies, at least 1
+	 * @param time - time manager, already started, shared with the helpers
+	 * @return best move of main search's deepest completed iteration
+	 */
+	public int search(Board board, int[] moves, int count, int maxDepth, TimeManager time) {
+		for (int i = 1; i < searches.length; i++) {
+			Search helper = searches[i];
+			Board helperBoard = boards[i];
+			int[] helperMoves = rootMoves[i];
+			helperBoard.copyFrom(board);
+			System.arraycopy(moves, 0, helperMoves, 0, count);
+			helpers[i] = pool.submit(() -> helper.search(helperBoard, helperMoves, count, maxDepth, time));
+		}
+
+		int best = searches[0].search(board, moves, count, maxDepth, time);
+
+		if (searches.length > 1) {
+			time.stop();
+			for (int i = 1; i < searches.length; i++) {
+				try {
+					helpers[i].get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("Search helper failed", e.getCause());
+				}
+				helpers[i] = null;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Stops helper threads for good.
+	 */
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdownNow();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Setter for endgame bitbases probed by every thread.
+	 *
+	 * @param bitbases - bitbases, null for none
+	 */
+	public void setBitbases(Bitbases bitbases) {
+		this.bitbases = bitbases;
+		for (int i = 0; i < searches.length; i++) {
+			searches[i].setBitbases(bitbases);
+		}
+	}
+
+	/**
+	 * Setter for listener told about each iteration the main search completes.
+	 *
+	 * @param iterationListener - listener, null for none
+	 */
+	public void setIterationListener(Consumer<Search> iterationListener) {
+		this.iterationListener = iterationListener;
+		searches[0].setIterationListener(iterationListener);
+	}
+
+	/**
+	 * Getter for number of search threads.
+	 *
+	 * @return threads, including the calling thread
+	 */
+	public int getThreads() {
+		return searches.length;
+	}
+
+	/**
+	 * Getter for main search, which decides the move.
+	 *
+	 * @return search run on the calling thread
+	 */
+	public Search getMainSearch() {
+		return searches[0];
+	}
+
+	/**
+	 * Getter for positions visited by every thread in the last search.
+	 *
+	 * @return total node count
+	 */
+	public long getNodes() {
+		long nodes = 0;
+		for (int i = 0; i < searches.length; i++) {
+			nodes += searches[i].getNodes();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Getter for move generator calls made by every thread in the last search.
+	 *
+	 * @return total call count
+	 */
+	public long getMoveGenerations() {
+		long calls = 0;
+		for (int i = 0; i < searches.length; i++) {
+			calls += searches[i].getMoveGenerations();
+		}
+		return calls;
+	}
+
+	/**
+	 * Getter for positions scored from the bitbases by every thread in the last search.
+	 *
+	 * @return total hit count
+	 */
+	public long getBitbaseHits() {
+		long hits = 0;
+		for (int i = 0; i < searches.length; i++) {
+			hits += searches[i].getBitbaseHits();
+		}
+		return hits;
+	}
+
+	/**
+	 * Getter for evaluation calls made by every thread in the last search.
+	 *
+	 * @return total call count
+	 */
+	public long getEvaluations() {
+		long calls = 0;
+		for (int i = 0; i < searches.length; i++) {
+			calls += searches[i].getEvaluations();
+		}
+		return calls;
+	}
+
+	/**
+	 * Getter for pawn hash table hits of every thread in the last search.
+	 *
+	 * @return total hit count
+	 */
+	public long getPawnHits() {
+		long hits = 0;
+		for (int i = 0; i < searches.length; i++) {
+			hits += searches[i].getPawnHits();
+		}
+		return hits;
+	}
+
+	/**
+	 * Getter for pawn hash table misses of every thread in the last search.
+	 *
+	 * @return total miss count
+	 */
+	public long getPawnMisses() {
+		long misses = 0;
+		for (int i = 0; i < searches.length; i++) {
+			misses += searches[i].getPawnMisses();
+		}
+		return misses;
+	}
+
+	/**
+	 * Empties every thread's pawn hash table.
+	 */
+	public void clearPawnTables() {
+		for (int i = 0; i < searches.length; i++) {
+			searches[i].getPawnTable().clear();
+		}
+	}
+}
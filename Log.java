@@ -0,0 +1,61 @@
+package main;
+
+/**
+ * Diagnostic logging with a level fixed at startup.
+ * <p>
+ * The level is read once from the chess.log system property (off, info, debug or trace).
+ * Call sites test one of the ENABLED constants before building a message, and since
+ * those are static final the JIT removes the whole statement when the level is lower,
+ * so tracing inside the search costs nothing while it is off.
+ * <p>
+ * Messages go to standard error, leaving standard output to the game or protocol.
+ *
+ * @author John Vnek
+ */
+public final class Log {
+
+	public static final int OFF = 0;
+	public static final int INFO = 1;
+	public static final int DEBUG = 2;
+	public static final int TRACE = 3;
+
+	private static final String[] NAMES = {"off", "info", "debug", "trace"};
+
+	public static final int LEVEL = parseLevel(System.getProperty("chess.log", "off"));
+	public static final boolean INFO_ENABLED = LEVEL >= INFO;
+	public static final boolean DEBUG_ENABLED = LEVEL >= DEBUG;
+	public static final boolean TRACE_ENABLED = LEVEL >= TRACE;
+
+	/**
+	 * Log only has static members and is never instantiated.
+	 */
+	private Log() {
+	}
+
+	/**
+	 * Writes message at given level, prefixed with level and thread name.
+	 *
+	 * @param level - INFO, DEBUG or TRACE
+	 * @param message - text of message
+	 */
+	public static void log(int level, String message) {
+		if (level <= LEVEL && level > OFF) {
+			System.err.println("[" + NAMES[level] + "] " + Thread.currentThread().getName() + ": " + message);
+		}
+	}
+
+	/**
+	 * Turns level name into level.
+	 *
+	 * @param name - off, info, debug or trace, in any case
+	 * @return level, OFF if name not recognized
+	 */
+	private static int parseLevel(String name) {
+		for (int level = OFF; level < NAMES.length; level++) {
+			if (NAMES[level].equalsIgnoreCase(name.trim())) {
+				return level;
+			}
+		}
+		return OFF;
+	}
+}
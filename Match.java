@@ -0,0 +1,549 @@
+package main;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.*;
+import java.time.format.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Plays engine against engine without a board display, many games at once, to measure a change.
+ * <p>
+ * Games are played in pairs from the same opening, each side having white once, so
+ * neither gains from a lucky opening. An opening is a number of random legal plies from
+ * the starting position, drawn from the match seed and the pair number, so rerunning
+ * with the same seed and fixed depth or node limits plays exactly the same games
+ * whatever the number of threads.
+ * <p>
+ * Each worker thread keeps its own pair of ComputerPlayers and clears their transposition
+ * tables between games, so games do not allocate tables or share state. Bitbases and
+ * opening books are mapped once and shared by every player. Virtual threads would need
+ * a newer JDK than this code targets, and a search is CPU bound anyway, so games run on
+ * a fixed pool, by default one thread per core.
+ * <p>
+ * A game ends in checkmate, stalemate, threefold repetition, the fifty-move rule,
+ * insufficient material, a loss on time, or is adjudicated a draw at the ply limit.
+ * Each finished game is appended to the PGN file straight away. After each game the
+ * score, Elo estimate and, if set, the sequential probability ratio test are printed;
+ * the match stops early once the test accepts either hypothesis, though never before
+ * MIN_SPRT_GAMES, since the test's normal approximation is unreliable on fewer.
+ * <p>
+ * Usage: Match [key=value]... with keys games, concurrency (games played at once), seed,
+ * openingplies, maxplies, pgn and sprt (elo0,elo1[,alpha,beta]). Engine keys depth, nodes,
+ * movetime, tc (base+increment in ms), hash, threads, bitbases, book and name apply to both
+ * sides, or to one side when prefixed with a. or b., as in a.depth=5 b.depth=4.
+ *
+ * @author John Vnek
+ */
+public class Match {
+
+	public static final int DEFAULT_GAMES = 100;
+	public static final int DEFAULT_OPENING_PLIES = 8;
+	public static final int DEFAULT_MAX_PLIES = 400;
+	public static final double DEFAULT_SPRT_ERROR = 0.05;
+	public static final int MIN_SPRT_GAMES = 20;
+
+	private static final int OPENING_TRIES = 100;
+
+	private Settings[] sides;
+	private int games;
+	private int threads;
+	private long seed;
+	private int openingPlies;
+	private int maxPlies;
+	private Path pgnPath;
+	private double[] sprt;
+	private ThreadLocal<ComputerPlayer[]> players;
+	private Writer pgn;
+	private int played;
+	private int wins;
+	private int draws;
+	private int losses;
+	private volatile boolean finished;
+
+	/**
+	 * Engine settings for one side of the match.
+	 */
+	public static final class Settings {
+
+		private String name;
+		private int depth = ComputerPlayer.DEFAULT_DEPTH;
+		private long nodes;
+		private long moveTime;
+		private long clockBase;
+		private long clockIncrement;
+		private int hash = ComputerPlayer.DEFAULT_HASH_MB;
+		private int threads = 1;
+		private boolean bitbases = true;
+		private OpeningBook book;
+
+		/**
+		 * Constructor for Settings.
+		 *
+		 * @param name - name of side in PGN and reports
+		 */
+		public Settings(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Applies one setting.
+		 *
+		 * @param key - depth, nodes, movetime, tc, hash, threads, bitbases, book or name
+		 * @param value - value of setting
+		 * @throws IOException if a book cannot be opened
+		 * @throws IllegalArgumentException if key is unknown or value malformed
+		 */
+		public void set(String key, String value) throws IOException {
+			switch (key) {
+			case "depth":
+				depth = Math.max(1, Integer.parseInt(value));
+				break;
+			case "nodes":
+				nodes = Long.parseLong(value);
+				break;
+			case "movetime":
+				moveTime = Long.parseLong(value);
+				break;
+			case "tc":
+				int plus = value.indexOf('+');
+				clockBase = Long.parseLong(plus < 0 ? value : value.substring(0, plus));
+				clockIncrement = plus < 0 ? 0 : Long.parseLong(value.substring(plus + 1));
+				break;
+			case "hash":
+				hash = Math.max(1, Integer.parseInt(value));
+				break;
+			case "threads":
+				threads = Math.max(1, Math.min(Integer.parseInt(value), LazySmp.MAX_THREADS));
+				break;
+			case "bitbases":
+				bitbases = Boolean.parseBoolean(value);
+				break;
+			case "book":
+				book = value.isEmpty() ? null : new OpeningBook(Paths.get(value));
+				break;
+			case "name":
+				name = value;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown engine setting " + key);
+			}
+		}
+
+		/**
+		 * Getter for name.
+		 *
+		 * @return name of side
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Creates player with these settings.
+		 *
+		 * @return new computer player
+		 */
+		ComputerPlayer create() {
+			ComputerPlayer player = new ComputerPlayer(true, hash);
+			player.setSearchDepth(clockBase > 0 || moveTime > 0 || nodes > 0 ? Search.MAX_PLY : depth);
+			player.setNodeLimit(nodes);
+			player.setMoveTime(moveTime);
+			player.setThreads(threads);
+			player.setBook(book);
+			player.setBitbases(bitbases ? Bitbases.getShared() : null);
+			return player;
+		}
+
+		/**
+		 * Describes limits, such as depth 5 or tc 10000+100.
+		 *
+		 * @return short description
+		 */
+		public String toString() {
+			String limit = clockBase > 0 ? "tc " + clockBase + "+" + clockIncrement
+					: moveTime > 0 ? "movetime " + moveTime : nodes > 0 ? "nodes " + nodes : "depth " + depth;
+			return name + " (" + limit + ", " + threads + " thread" + (threads > 1 ? "s" : "")
+					+ (bitbases ? ", bitbases" : "") + (book != null ? ", book" : "") + ")";
+		}
+	}
+
+	/**
+	 * Constructor for Match with default settings, engine A against engine B.
+	 */
+	public Match() {
+		this.sides = new Settings[] {new Settings("Engine A"), new Settings("Engine B")};
+		this.games = DEFAULT_GAMES;
+		this.threads = Runtime.getRuntime().availableProcessors();
+		this.seed = 1;
+		this.openingPlies = DEFAULT_OPENING_PLIES;
+		this.maxPlies = DEFAULT_MAX_PLIES;
+		this.players = ThreadLocal.withInitial(() -> new ComputerPlayer[] {sides[0].create(), sides[1].create()});
+	}
+
+	/**
+	 * Runs match configured from command line.
+	 *
+	 * @param args - key=value settings
+	 * @throws IOException if the PGN file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		Match match = new Match();
+		for (String arg : args) {
+			int equals = arg.indexOf('=');
+			if (equals < 0) {
+				System.out.println("Usage: Match [key=value]..., see Match class documentation");
+				return;
+			}
+			try {
+				match.set(arg.substring(0, equals), arg.substring(equals + 1));
+			} catch (IllegalArgumentException e) {
+				System.out.println("Bad setting " + arg + ": " + e.getMessage());
+				return;
+			}
+		}
+		match.run();
+	}
+
+	/**
+	 * Applies one match or engine setting.
+	 *
+	 * @param key - setting name, engine settings optionally prefixed with a. or b.
+	 * @param value - value of setting
+	 * @throws IOException if a book cannot be opened
+	 * @throws IllegalArgumentException if key is unknown or value malformed
+	 */
+	public void set(String key, String value) throws IOException {
+		switch (key) {
+		case "games":
+			games = Math.max(1, Integer.parseInt(value));
+			break;
+		case "concurrency":
+			threads = Math.max(1, Integer.parseInt(value));
+			break;
+		case "seed":
+			seed = Long.parseLong(value);
+			break;
+		case "openingplies":
+			openingPlies = Math.max(0, Integer.parseInt(value));
+			break;
+		case "maxplies":
+			maxPlies = Math.max(1, Integer.parseInt(value));
+			break;
+		case "pgn":
+			pgnPath = value.isEmpty() ? null : Paths.get(value);
+			break;
+		case "sprt":
+			String[] bounds = value.split(",");
+			sprt = new double[] {Double.parseDouble(bounds[0]), Double.parseDouble(bounds[1]),
+					bounds.length > 2 ? Double.parseDouble(bounds[2]) : DEFAULT_SPRT_ERROR,
+					bounds.length > 3 ? Double.parseDouble(bounds[3]) : DEFAULT_SPRT_ERROR};
+			break;
+		default:
+			if (key.startsWith("a.") || key.startsWith("b.")) {
+				sides[key.charAt(0) - 'a'].set(key.substring(2), value);
+			} else {
+				sides[0].set(key, value);
+				sides[1].set(key, value);
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Plays every game, or until the SPRT decides, and prints the summary.
+	 *
+	 * @throws IOException if the PGN file cannot be written
+	 */
+	public void run() throws IOException {
+		System.out.printf("%s vs %s, %d games on %d threads, seed %d%n", sides[0], sides[1], games, threads, seed);
+		if (pgnPath != null) {
+			pgn = Files.newBufferedWriter(pgnPath, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "match");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long start = System.nanoTime();
+		List<Future<?>> results = new ArrayList<>();
+		for (int game = 0; game < games; game++) {
+			int number = game;
+			results.add(pool.submit(() -> play(number)));
+		}
+		try {
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Game failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+			if (pgn != null) {
+				pgn.close();
+			}
+		}
+
+		double hours = (System.nanoTime() - start) / 3.6e12;
+		System.out.printf("Finished %d games in %.1f s, %.0f games per hour%n", played, hours * 3600, played / hours);
+		System.out.println(summary());
+	}
+
+	/**
+	 * Plays one game and records its result, unless the match is already decided.
+	 * <p>
+	 * Engine A has white in even games and black in odd ones.
+	 *
+	 * @param game - game number, from 0
+	 */
+	private void play(int game) {
+		if (finished) {
+			return;
+		}
+		ComputerPlayer[] engines = players.get();
+		boolean aWhite = game % 2 == 0;
+		ComputerPlayer white = engines[aWhite ? 0 : 1];
+		ComputerPlayer black = engines[aWhite ? 1 : 0];
+		Settings whiteSettings = sides[aWhite ? 0 : 1];
+		Settings blackSettings = sides[aWhite ? 1 : 0];
+		for (ComputerPlayer engine : engines) {
+			engine.clearTables();
+			engine.setSeed(seed * 31 + game);
+		}
+
+		Board board = Board.fromFen(Board.STARTING_FEN);
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int[] buffer = new int[MoveGenerator.MAX_MOVES];
+		StringBuilder movetext = new StringBuilder();
+		playOpening(board, new Random(seed * 31 + game / 2), moves, buffer, movetext);
+
+		Map<Long, Integer> seen = new HashMap<>();
+		long[] clocks = {whiteSettings.clockBase, blackSettings.clockBase};
+		String result = null;
+		String reason = null;
+		while (result == null) {
+			boolean whiteToMove = board.isWhiteToMove();
+			int count = MoveGenerator.generateLegal(board, moves);
+			if (count == 0) {
+				boolean check = board.isAttacked(Bitboards.first(board.getPieces(Piece.KING, whiteToMove)), !whiteToMove);
+				result = !check ? "1/2-1/2" : whiteToMove ? "0-1" : "1-0";
+				reason = check ? "checkmate" : "stalemate";
+			} else if (seen.merge(board.hash(), 1, Integer::sum) >= 3) {
+				result = "1/2-1/2";
+				reason = "threefold repetition";
+			} else if (board.getHalfmoveClock() >= 100) {
+				result = "1/2-1/2";
+				reason = "fifty-move rule";
+			} else if (insufficientMaterial(board)) {
+				result = "1/2-1/2";
+				reason = "insufficient material";
+			} else if (board.getPly() >= maxPlies) {
+				result = "1/2-1/2";
+				reason = "adjudicated at ply limit";
+			} else {
+				ComputerPlayer engine = whiteToMove ? white : black;
+				Settings settings = whiteToMove ? whiteSettings : blackSettings;
+				int side = whiteToMove ? 0 : 1;
+				if (settings.clockBase > 0) {
+					engine.setClock(clocks[side], settings.clockIncrement, 0);
+				}
+				long start = System.nanoTime();
+				engine.startClock();
+				int move = engine.think(board);
+				if (settings.clockBase > 0) {
+					clocks[side] += settings.clockIncrement - (System.nanoTime() - start) / 1000000L;
+					if (clocks[side] < 0) {
+						result = whiteToMove ? "0-1" : "1-0";
+						reason = (whiteToMove ? "white" : "black") + " lost on time";
+						break;
+					}
+				}
+				appendMove(board, move, buffer, movetext);
+				board.makeMove(move);
+			}
+		}
+		record(game, aWhite, whiteSettings.getName(), blackSettings.getName(), result, reason, movetext);
+	}
+
+	/**
+	 * Plays random legal opening moves, retrying until they leave a game to play.
+	 *
+	 * @param board - chess board Object at the starting position
+	 * @param random - source of randomness for this opening
+	 * @param moves - buffer for legal moves
+	 * @param buffer - buffer for move notation
+	 * @param movetext - PGN movetext the opening is written to
+	 */
+	private void playOpening(Board board, Random random, int[] moves, int[] buffer, StringBuilder movetext) {
+		for (int attempt = 0; attempt < OPENING_TRIES; attempt++) {
+			movetext.setLength(0);
+			while (board.getPly() > 0) {
+				board.unmakeMove();
+			}
+			for (int ply = 0; ply < openingPlies; ply++) {
+				int count = MoveGenerator.generateLegal(board, moves);
+				if (count == 0) {
+					break;
+				}
+				int move = moves[random.nextInt(count)];
+				appendMove(board, move, buffer, movetext);
+				board.makeMove(move);
+			}
+			if (MoveGenerator.generateLegal(board, moves) > 0) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Appends move to PGN movetext, with its move number when white plays it.
+	 *
+	 * @param board - chess board Object before the move
+	 * @param move - legal packed move
+	 * @param buffer - buffer for legal moves
+	 * @param movetext - PGN movetext
+	 */
+	private static void appendMove(Board board, int move, int[] buffer, StringBuilder movetext) {
+		if (board.isWhiteToMove()) {
+			movetext.append(board.getPly() / 2 + 1).append(". ");
+		}
+		movetext.append(MoveGenerator.toSan(board, move, buffer)).append(' ');
+	}
+
+	/**
+	 * Checks whether neither side has enough material left to mate.
+	 *
+	 * @param board - chess board Object
+	 * @return true if only kings are left, or kings and one knight or bishop
+	 */
+	private static boolean insufficientMaterial(Board board) {
+		int pieces = Bitboards.count(board.getOccupied());
+		long minors = board.getPieces(Piece.KNIGHT, true) | board.getPieces(Piece.KNIGHT, false)
+				| board.getPieces(Piece.BISHOP, true) | board.getPieces(Piece.BISHOP, false);
+		return pieces == 2 || (pieces == 3 && minors != 0);
+	}
+
+	/**
+	 * Counts game result, writes game to the PGN file and prints progress.
+	 *
+	 * @param game - game number, from 0
+	 * @param aWhite - true if engine A had white
+	 * @param whiteName - name of white side
+	 * @param blackName - name of black side
+	 * @param result - 1-0, 0-1 or 1/2-1/2
+	 * @param reason - how the game ended
+	 * @param movetext - moves of the game
+	 */
+	private synchronized void record(int game, boolean aWhite, String whiteName, String blackName,
+			String result, String reason, StringBuilder movetext) {
+		if (finished) {
+			return;
+		}
+		played++;
+		if (result.equals("1/2-1/2")) {
+			draws++;
+		} else if (result.equals("1-0") == aWhite) {
+			wins++;
+		} else {
+			losses++;
+		}
+
+		if (pgn != null) {
+			try {
+				pgn.write("[Event \"Match\"]\n[Site \"?\"]\n[Date \""
+						+ LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd")) + "\"]\n");
+				pgn.write("[Round \"" + (game + 1) + "\"]\n[White \"" + whiteName + "\"]\n[Black \"" + blackName + "\"]\n");
+				pgn.write("[Result \"" + result + "\"]\n[Termination \"" + reason + "\"]\n\n");
+				pgn.write(movetext + "{" + reason + "} " + result + "\n\n");
+				pgn.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		System.out.printf("Game %d (%s vs %s): %s, %s | %s%n", game + 1, whiteName, blackName, result, reason, summary());
+		if (sprt != null && played >= MIN_SPRT_GAMES) {
+			double llr = llr(wins, draws, losses, sprt[0], sprt[1]);
+			finished = llr <= Math.log(sprt[3] / (1 - sprt[2])) || llr >= Math.log((1 - sprt[3]) / sprt[2]);
+		}
+	}
+
+	/**
+	 * Summarizes match so far from engine A's point of view.
+	 *
+	 * @return wins, losses, draws, Elo with 95% error margin and SPRT state
+	 */
+	public synchronized String summary() {
+		int total = wins + draws + losses;
+		StringBuilder summary = new StringBuilder(String.format("Score of %s vs %s: +%d -%d =%d",
+				sides[0].getName(), sides[1].getName(), wins, losses, draws));
+		if (total > 0) {
+			double score = (wins + draws / 2.0) / total;
+			double deviation = Math.sqrt(variance(wins, draws, losses) / total);
+			summary.append(String.format(" [%.3f], Elo %.1f +/- %.1f", score, elo(score),
+					(elo(score + 1.96 * deviation) - elo(score - 1.96 * deviation)) / 2));
+		}
+		if (sprt != null) {
+			double lower = Math.log(sprt[3] / (1 - sprt[2]));
+			double upper = Math.log((1 - sprt[3]) / sprt[2]);
+			double llr = llr(wins, draws, losses, sprt[0], sprt[1]);
+			summary.append(String.format(", SPRT elo0 %.1f elo1 %.1f LLR %.2f (%.2f, %.2f)%s", sprt[0], sprt[1], llr, lower, upper,
+					llr >= upper ? " H1 accepted" : llr <= lower ? " H0 accepted" : ""));
+		}
+		return summary.toString();
+	}
+
+	/**
+	 * Converts expected score into Elo difference.
+	 *
+	 * @param score - expected score, 0 to 1
+	 * @return Elo difference, infinite for a score of 0 or 1
+	 */
+	public static double elo(double score) {
+		score = Math.max(0, Math.min(1, score));
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+	/**
+	 * Log-likelihood ratio of Elo difference elo1 against elo0, by the normal approximation
+	 * to the generalized SPRT used by common testing frameworks.
+	 *
+	 * @param wins - games won by engine A
+	 * @param draws - games drawn
+	 * @param losses - games lost by engine A
+	 * @param elo0 - Elo difference of null hypothesis
+	 * @param elo1 - Elo difference of alternative hypothesis
+	 * @return log-likelihood ratio, 0 until both a win or loss and a second outcome are seen
+	 */
+	public static double llr(int wins, int draws, int losses, double elo0, double elo1) {
+		int total = wins + draws + losses;
+		double variance = variance(wins, draws, losses);
+		if (total == 0 || variance == 0) {
+			return 0;
+		}
+		double score = (wins + draws / 2.0) / total;
+		double score0 = 1 / (1 + Math.pow(10, -elo0 / 400));
+		double score1 = 1 / (1 + Math.pow(10, -elo1 / 400));
+		return total * (score1 - score0) * (2 * score - score0 - score1) / (2 * variance);
+	}
+
+	/**
+	 * Variance of one game's score.
+	 *
+	 * @param wins - games won
+	 * @param draws - games drawn
+	 * @param losses - games lost
+	 * @return variance of the score per game, 0 if no games
+	 */
+	private static double variance(int wins, int draws, int losses) {
+		int total = wins + draws + losses;
+		if (total == 0) {
+			return 0;
+		}
+		double score = (wins + draws / 2.0) / total;
+		return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score) + losses * score * score) / total;
+	}
+}
@@ -12,6 +12,7 @@ public class Move {
 	private Spot end;
 	private Piece pieceMoved;
 	private Piece pieceCaptured;
+	private int promotion = Piece.QUEEN;
 	
 	/**
 	 * Constructor for Move.
@@ -62,6 +63,24 @@ public class Move {
 		return this.pieceCaptured;
 	}
 	
+	/**
+	 * Setter for piece type a pawn promotes to if this move reaches the last row.
+	 * 
+	 * @param promotion - piece type constant, queen by default
+	 */
+	public void setPromotion(int promotion) {
+		this.promotion = promotion;
+	}
+	
+	/**
+	 * Getter for piece type a pawn promotes to if this move reaches the last row.
+	 * 
+	 * @return promotion piece type
+	 */
+	public int getPromotion() {
+		return promotion;
+	}
+	
 	/**
 	 * Getter for starting Spot.
 	 * 
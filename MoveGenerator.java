@@ -0,0 +1,401 @@
+package main;
+
+/**
+ * Generates moves by standard chess rules into preallocated int buffers.
+ * <p>
+ * Moves are packed with PackedMove. Generated moves are pseudo-legal:
+ * they may leave the mover's own king attacked, which isLegal checks
+ * using the board's attack maps after making the move.
+ *
+ * @author John Vnek
+ */
+public final class MoveGenerator {
+
+	public static final int MAX_MOVES = 256;
+
+	private static final int[] PROMOTIONS = {Piece.QUEEN, Piece.ROOK, Piece.BISHOP, Piece.KNIGHT};
+
+	/**
+	 * MoveGenerator is a collection of static methods and is never instantiated.
+	 */
+	private MoveGenerator() {
+	}
+
+	/**
+	 * Generates every pseudo-legal move for side to move.
+	 *
+	 * @param board - chess board Object
+	 * @param moves - buffer of at least MAX_MOVES entries
+	 * @return number of moves written
+	 */
+	public static int generate(Board board, int[] moves) {
+		boolean white = board.isWhiteToMove();
+		return generate(board, white, board.getColorPieces(white), false, moves);
+	}
+
+	/**
+	 * Generates captures and queen promotions for side to move.
+	 *
+	 * @param board - chess board Object
+	 * @param moves - buffer of at least MAX_MOVES entries
+	 * @return number of moves written
+	 */
+	public static int generateCaptures(Board board, int[] moves) {
+		boolean white = board.isWhiteToMove();
+		return generate(board, white, board.getColorPieces(white), true, moves);
+	}
+
+	/**
+	 * Generates pseudo-legal moves for pieces of one color on the given squares.
+	 *
+	 * @param board - chess board Object
+	 * @param white - color of pieces moving
+	 * @param fromMask - squares whose pieces should move
+	 * @param capturesOnly - true to only generate captures and queen promotions
+	 * @param moves - buffer of at least MAX_MOVES entries
+	 * @return number of moves written
+	 */
+	public static int generate(Board board, boolean white, long fromMask, boolean capturesOnly, int[] moves) {
+		long own = board.getColorPieces(white);
+		long enemy = board.getColorPieces(!white);
+		long occupied = board.getOccupied();
+		long targets = capturesOnly ? enemy : ~own;
+		int count = 0;
+
+		long pawns = fromMask & board.getPieces(Piece.PAWN, white);
+		while (pawns != 0) {
+			int from = Bitboards.first(pawns);
+			count = pawnMoves(board, white, from, capturesOnly, moves, count);
+			pawns &= pawns - 1;
+		}
+
+		long pieces = fromMask & own & ~board.getPieces(Piece.PAWN, white);
+		while (pieces != 0) {
+			int from = Bitboards.first(pieces);
+			int piece = board.getPiece(from).getIndex();
+			long attacks = Bitboards.attacks(board.getPiece(from).getType(), white, from, occupied) & targets;
+			while (attacks != 0) {
+				int to = Bitboards.first(attacks);
+				moves[count++] = PackedMove.encode(from, to, piece, capturedIndex(board, to), 0, 0);
+				attacks &= attacks - 1;
+			}
+			pieces &= pieces - 1;
+		}
+
+		long king = fromMask & board.getPieces(Piece.KING, white);
+		if (!capturesOnly && king != 0) {
+			count = castlingMoves(board, white, Bitboards.first(king), moves, count);
+		}
+		return count;
+	}
+
+	/**
+	 * Writes pushes, captures, en passant and promotions of one pawn.
+	 *
+	 * @param board - chess board Object
+	 * @param white - color of pawn
+	 * @param from - square of pawn
+	 * @param capturesOnly - true to skip quiet pushes and under-promotions
+	 * @param moves - buffer being filled
+	 * @param count - moves already in buffer
+	 * @return moves in buffer afterwards
+	 */
+	private static int pawnMoves(Board board, boolean white, int from, boolean capturesOnly, int[] moves, int count) {
+		int piece = Piece.index(Piece.PAWN, white);
+		int forward = white ? 8 : -8;
+		int startRow = white ? 1 : 6;
+		int lastRow = white ? 7 : 0;
+		long occupied = board.getOccupied();
+
+		long captures = Bitboards.pawnAttacks(white, from) & board.getColorPieces(!white);
+		while (captures != 0) {
+			int to = Bitboards.first(captures);
+			count = addPawnMove(from, to, piece, capturedIndex(board, to), 0, Bitboards.row(to) == lastRow, capturesOnly, moves, count);
+			captures &= captures - 1;
+		}
+
+		int ep = board.getEpSquare();
+		if (ep != Board.NO_SQUARE && (Bitboards.pawnAttacks(white, from) & Bitboards.bit(ep)) != 0) {
+			moves[count++] = PackedMove.encode(from, ep, piece, Piece.index(Piece.PAWN, !white), 0, Board.EN_PASSANT);
+		}
+
+		int to = from + forward;
+		if ((occupied & Bitboards.bit(to)) == 0) {
+			boolean promotes = Bitboards.row(to) == lastRow;
+			if (!capturesOnly || promotes) {
+				count = addPawnMove(from, to, piece, PackedMove.NO_PIECE, 0, promotes, capturesOnly, moves, count);
+			}
+			int twoSteps = to + forward;
+			if (!capturesOnly && Bitboards.row(from) == startRow && (occupied & Bitboards.bit(twoSteps)) == 0) {
+				moves[count++] = PackedMove.encode(from, twoSteps, piece, PackedMove.NO_PIECE, 0, 0);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Writes pawn move, expanding it into each promotion if it reaches the last row.
+	 *
+	 * @param from - square pawn starts on
+	 * @param to - square pawn ends on
+	 * @param piece - bitboard index of pawn
+	 * @param captured - bitboard index of captured piece, NO_PIECE if none
+	 * @param flags - extra move flags
+	 * @param promotes - true if move reaches last row
+	 * @param queenOnly - true to only write the queen promotion
+	 * @param moves - buffer being filled
+	 * @param count - moves already in buffer
+	 * @return moves in buffer afterwards
+	 */
+	private static int addPawnMove(int from, int to, int piece, int captured, int flags, boolean promotes, boolean queenOnly, int[] moves, int count) {
+		if (!promotes) {
+			moves[count++] = PackedMove.encode(from, to, piece, captured, 0, flags);
+		} else {
+			for (int i = 0; i < (queenOnly ? 1 : PROMOTIONS.length); i++) {
+				moves[count++] = PackedMove.encode(from, to, piece, captured, PROMOTIONS[i], flags | Board.PROMOTION);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Writes castling moves still allowed for king.
+	 * <p>
+	 * Squares between king and rook must be empty, and the king may not castle
+	 * out of or through an attacked square. Landing in check is left to isLegal.
+	 *
+	 * @param board - chess board Object
+	 * @param white - color of king
+	 * @param king - square of king
+	 * @param moves - buffer being filled
+	 * @param count - moves already in buffer
+	 * @return moves in buffer afterwards
+	 */
+	private static int castlingMoves(Board board, boolean white, int king, int[] moves, int count) {
+		int rights = board.getCastling();
+		int kingside = white ? Board.WHITE_KINGSIDE : Board.BLACK_KINGSIDE;
+		int queenside = white ? Board.WHITE_QUEENSIDE : Board.BLACK_QUEENSIDE;
+		if ((rights & (kingside | queenside)) == 0 || board.isAttacked(king, !white)) {
+			return count;
+		}
+
+		long occupied = board.getOccupied();
+		int piece = Piece.index(Piece.KING, white);
+		if ((rights & kingside) != 0 && (occupied & (Bitboards.bit(king + 1) | Bitboards.bit(king + 2))) == 0
+				&& !board.isAttacked(king + 1, !white)) {
+			moves[count++] = PackedMove.encode(king, king + 2, piece, PackedMove.NO_PIECE, 0, Board.CASTLE);
+		}
+		if ((rights & queenside) != 0 && (occupied & (Bitboards.bit(king - 1) | Bitboards.bit(king - 2) | Bitboards.bit(king - 3))) == 0
+				&& !board.isAttacked(king - 1, !white)) {
+			moves[count++] = PackedMove.encode(king, king - 2, piece, PackedMove.NO_PIECE, 0, Board.CASTLE);
+		}
+		return count;
+	}
+
+	/**
+	 * Getter for index of piece on square.
+	 *
+	 * @param board - chess board Object
+	 * @param square - square index
+	 * @return bitboard index of piece, NO_PIECE if empty
+	 */
+	private static int capturedIndex(Board board, int square) {
+		Piece piece = board.getPiece(square);
+		return piece == null ? PackedMove.NO_PIECE : piece.getIndex();
+	}
+
+	/**
+	 * Checks if pseudo-legal move leaves the mover's king safe.
+	 * <p>
+	 * Makes the move, asks the attack maps whether the king is attacked, and takes it back.
+	 *
+	 * @param board - chess board Object
+	 * @param move - packed pseudo-legal move
+	 * @return true if legal, false if it leaves own king attacked
+	 */
+	public static boolean isLegal(Board board, int move) {
+		boolean white = board.isWhiteToMove();
+		board.makeMove(move);
+		long king = board.getPieces(Piece.KING, white);
+		boolean legal = king == 0 || !board.isAttacked(Bitboards.first(king), !white);
+		board.unmakeMove();
+		return legal;
+	}
+
+	/**
+	 * Generates every legal move for side to move.
+	 *
+	 * @param board - chess board Object
+	 * @param moves - buffer of at least MAX_MOVES entries
+	 * @return number of moves written
+	 */
+	public static int generateLegal(Board board, int[] moves) {
+		int count = generate(board, moves);
+		int legal = 0;
+		for (int i = 0; i < count; i++) {
+			if (isLegal(board, moves[i])) {
+				moves[legal++] = moves[i];
+			}
+		}
+		return legal;
+	}
+
+	/**
+	 * Finds legal move written in coordinate notation, such as e2e4 or e7e8q.
+	 *
+	 * @param board - chess board Object
+	 * @param text - move in coordinate notation
+	 * @return packed move, NO_MOVE if no legal move matches
+	 */
+	public static int parse(Board board, String text) {
+		int[] moves = new int[MAX_MOVES];
+		int count = generateLegal(board, moves);
+		for (int i = 0; i < count; i++) {
+			if (PackedMove.toString(moves[i]).equals(text)) {
+				return moves[i];
+			}
+		}
+		return PackedMove.NO_MOVE;
+	}
+
+	/**
+	 * Finds legal move written in standard algebraic notation, such as Nf3, exd5, e8=Q or O-O.
+	 * <p>
+	 * Check, mate and annotation marks are ignored. The move is matched against the
+	 * legal moves by piece, destination, any disambiguating file or rank, and promotion.
+	 *
+	 * @param board - chess board Object
+	 * @param san - move in standard algebraic notation
+	 * @param moves - buffer for legal moves
+	 * @return packed move, NO_MOVE if no single legal move matches
+	 */
+	public static int parseSan(Board board, String san, int[] moves) {
+		String text = san.replaceAll("[+#!?]", "").replace('0', 'O');
+		int count = generateLegal(board, moves);
+		if (text.equals("O-O") || text.equals("O-O-O")) {
+			int col = text.equals("O-O") ? 6 : 2;
+			for (int i = 0; i < count; i++) {
+				if ((PackedMove.flags(moves[i]) & Board.CASTLE) != 0 && Bitboards.col(PackedMove.to(moves[i])) == col) {
+					return moves[i];
+				}
+			}
+			return PackedMove.NO_MOVE;
+		}
+
+		int promotion = 0;
+		int equals = text.indexOf('=');
+		if (equals >= 0 && equals + 1 < text.length()) {
+			promotion = "PNBRQK".indexOf(text.charAt(equals + 1));
+			text = text.substring(0, equals);
+		} else if (text.length() > 2 && "NBRQ".indexOf(text.charAt(text.length() - 1)) >= 0
+				&& Character.isDigit(text.charAt(text.length() - 2))) {
+			promotion = "PNBRQK".indexOf(text.charAt(text.length() - 1));
+			text = text.substring(0, text.length() - 1);
+		}
+		if (text.length() < 2 || promotion < 0) {
+			return PackedMove.NO_MOVE;
+		}
+
+		int type = Piece.PAWN;
+		int start = 0;
+		if ("NBRQK".indexOf(text.charAt(0)) >= 0) {
+			type = "PNBRQK".indexOf(text.charAt(0));
+			start = 1;
+		}
+		char file = text.charAt(text.length() - 2);
+		char rank = text.charAt(text.length() - 1);
+		if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+			return PackedMove.NO_MOVE;
+		}
+		int to = Bitboards.square(file - 'a', rank - '1');
+		String hint = text.substring(start, text.length() - 2).replace("x", "");
+
+		int found = PackedMove.NO_MOVE;
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+			int from = PackedMove.from(move);
+			if (PackedMove.to(move) != to || PackedMove.piece(move) % Piece.NUM_TYPES != type
+					|| PackedMove.promotion(move) != promotion) {
+				continue;
+			}
+			boolean matches = true;
+			for (int j = 0; j < hint.length(); j++) {
+				char c = hint.charAt(j);
+				if (c >= 'a' && c <= 'h') {
+					matches &= Bitboards.col(from) == c - 'a';
+				} else if (c >= '1' && c <= '8') {
+					matches &= Bitboards.row(from) == c - '1';
+				}
+			}
+			if (matches) {
+				if (found != PackedMove.NO_MOVE) {
+					return PackedMove.NO_MOVE;
+				}
+				found = move;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Writes legal move in standard algebraic notation, as parseSan reads it back.
+	 * <p>
+	 * The origin file, rank or both are added only when another piece of the same type
+	 * can reach the same square. Moves that give check end in + and mates in #.
+	 *
+	 * @param board - chess board Object, left as it was found
+	 * @param move - legal packed move
+	 * @param moves - buffer for legal moves
+	 * @return move in standard algebraic notation
+	 */
+	public static String toSan(Board board, int move, int[] moves) {
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		int type = PackedMove.piece(move) % Piece.NUM_TYPES;
+		StringBuilder san = new StringBuilder();
+		if ((PackedMove.flags(move) & Board.CASTLE) != 0) {
+			san.append(Bitboards.col(to) > Bitboards.col(from) ? "O-O" : "O-O-O");
+		} else {
+			if (type == Piece.PAWN) {
+				if (PackedMove.isCapture(move)) {
+					san.append((char) ('a' + Bitboards.col(from)));
+				}
+			} else {
+				san.append("PNBRQK".charAt(type));
+				boolean ambiguous = false;
+				boolean sameCol = false;
+				boolean sameRow = false;
+				int count = generateLegal(board, moves);
+				for (int i = 0; i < count; i++) {
+					int other = PackedMove.from(moves[i]);
+					if (PackedMove.to(moves[i]) == to && other != from && PackedMove.piece(moves[i]) % Piece.NUM_TYPES == type) {
+						ambiguous = true;
+						sameCol |= Bitboards.col(other) == Bitboards.col(from);
+						sameRow |= Bitboards.row(other) == Bitboards.row(from);
+					}
+				}
+				if (ambiguous && (!sameCol || sameRow)) {
+					san.append((char) ('a' + Bitboards.col(from)));
+				}
+				if (ambiguous && sameCol) {
+					san.append((char) ('1' + Bitboards.row(from)));
+				}
+			}
+			if (PackedMove.isCapture(move)) {
+				san.append('x');
+			}
+			san.append(PackedMove.squareName(to));
+			if (PackedMove.promotion(move) != 0) {
+				san.append('=').append("PNBRQK".charAt(PackedMove.promotion(move)));
+			}
+		}
+
+		board.makeMove(move);
+		boolean white = board.isWhiteToMove();
+		if (board.isAttacked(Bitboards.first(board.getPieces(Piece.KING, white)), !white)) {
+			san.append(generateLegal(board, moves) == 0 ? '#' : '+');
+		}
+		board.unmakeMove();
+		return san.toString();
+	}
+}
@@ -0,0 +1,211 @@
+package main;
+
+/**
+ * Orders moves so the ones most likely to cause a cutoff are searched first.
+ * <p>
+ * The transposition table move goes first, then captures by most valuable victim,
+ * least valuable attacker (MVV-LVA) using Piece.getValue, then the two killer moves
+ * of the ply, then captures that lose material by static exchange evaluation, then
+ * quiet moves by butterfly history: how often a move between the same two squares
+ * caused a cutoff, weighted by depth. Exchanges are only evaluated for captures of a
+ * cheaper piece, since taking a piece worth at least the capturer cannot lose.
+ * <p>
+ * Moves are scored once when a node is expanded and picked best first,
+ * so a node that cuts off early never sorts the rest.
+ *
+ * @author John Vnek
+ */
+public class MoveOrdering {
+
+	private static final int TT_MOVE_SCORE = 4000000;
+	private static final int CAPTURE_SCORE = 2000000;
+	private static final int FIRST_KILLER_SCORE = 1900000;
+	private static final int SECOND_KILLER_SCORE = 1800000;
+	private static final int LOSING_CAPTURE_SCORE = 1500000;
+	private static final int HISTORY_MAX = 1000000;
+	private static final int[] VALUES = new int[PackedMove.NO_PIECE + 1];
+
+	static {
+		for (int type = Piece.PAWN; type < Piece.NUM_TYPES; type++) {
+			VALUES[Piece.index(type, true)] = Piece.create(type, true).getValue();
+			VALUES[Piece.index(type, false)] = Piece.create(type, false).getValue();
+		}
+	}
+
+	private int[][] killers;
+	private int[][] history;
+
+	/**
+	 * Constructor for MoveOrdering.
+	 *
+	 * @param maxPly - deepest ply killer moves are kept for
+	 */
+	public MoveOrdering(int maxPly) {
+		this.killers = new int[maxPly + 1][2];
+		this.history = new int[2][64 * 64];
+	}
+
+	/**
+	 * Prepares for a new search, forgetting killers and fading history.
+	 */
+	public void newSearch() {
+		for (int i = 0; i < killers.length; i++) {
+			killers[i][0] = PackedMove.NO_MOVE;
+			killers[i][1] = PackedMove.NO_MOVE;
+		}
+		ageHistory();
+	}
+
+	/**
+	 * Scores moves for ordering.
+	 *
+	 * @param board - chess board Object the moves are made on
+	 * @param moves - buffer of packed moves
+	 * @param scores - buffer receiving ordering score of each move
+	 * @param count - number of moves
+	 * @param ply - distance from root
+	 * @param ttMove - best move from transposition table, NO_MOVE if none
+	 */
+	public void score(Board board, int[] moves, int[] scores, int count, int ply, int ttMove) {
+		int[] plyKillers = killers[ply];
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+			if (move == ttMove) {
+				scores[i] = TT_MOVE_SCORE;
+			} else if (PackedMove.promotion(move) != 0) {
+				scores[i] = CAPTURE_SCORE + mvvLva(move);
+			} else if (PackedMove.isCapture(move)) {
+				scores[i] = (losesMaterial(board, move) ? LOSING_CAPTURE_SCORE : CAPTURE_SCORE) + mvvLva(move);
+			} else if (move == plyKillers[0]) {
+				scores[i] = FIRST_KILLER_SCORE;
+			} else if (move == plyKillers[1]) {
+				scores[i] = SECOND_KILLER_SCORE;
+			} else {
+				scores[i] = history[color(move)][butterfly(move)];
+			}
+		}
+	}
+
+	/**
+	 * Checks if ordering score is that of a capture losing material, or of a quiet move.
+	 *
+	 * @param score - ordering score given by score
+	 * @return true if below every winning or even capture
+	 */
+	public static boolean isLosing(int score) {
+		return score < CAPTURE_SCORE;
+	}
+
+	/**
+	 * Checks if capture loses material by static exchange evaluation.
+	 *
+	 * @param board - chess board Object
+	 * @param move - packed capture
+	 * @return true if the exchange on the end square loses material
+	 */
+	private static boolean losesMaterial(Board board, int move) {
+		int attacker = PackedMove.piece(move) % Piece.NUM_TYPES;
+		int victim = PackedMove.captured(move) % Piece.NUM_TYPES;
+		return Evaluation.material(victim) < Evaluation.material(attacker) && board.see(move) < 0;
+	}
+
+	/**
+	 * Scores capture by victim's value first and attacker's value second.
+	 * <p>
+	 * Promotions count the piece promoted to as an extra victim.
+	 *
+	 * @param move - packed move
+	 * @return larger for more valuable victims and cheaper attackers
+	 */
+	public static int mvvLva(int move) {
+		int victim = VALUES[PackedMove.captured(move)];
+		if (PackedMove.promotion(move) != 0) {
+			victim += VALUES[PackedMove.promotion(move)];
+		}
+		return victim * 64 - VALUES[PackedMove.piece(move)];
+	}
+
+	/**
+	 * Swaps best scored move from index onwards into index.
+	 *
+	 * @param moves - buffer of packed moves
+	 * @param scores - buffer of ordering scores
+	 * @param index - next index to search
+	 * @param count - number of moves
+	 * @return move now at index
+	 */
+	public static int pickNext(int[] moves, int[] scores, int index, int count) {
+		int best = index;
+		for (int i = index + 1; i < count; i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		int move = moves[best];
+		moves[best] = moves[index];
+		moves[index] = move;
+		int score = scores[best];
+		scores[best] = scores[index];
+		scores[index] = score;
+		return move;
+	}
+
+	/**
+	 * Records move that caused a beta cutoff.
+	 * <p>
+	 * Only quiet moves become killers and gain history, since captures are already ordered by MVV-LVA.
+	 *
+	 * @param move - packed move that cut off
+	 * @param ply - distance from root
+	 * @param depth - remaining depth of node
+	 */
+	public void cutoff(int move, int ply, int depth) {
+		if (PackedMove.isCapture(move) || PackedMove.promotion(move) != 0) {
+			return;
+		}
+		int[] plyKillers = killers[ply];
+		if (plyKillers[0] != move) {
+			plyKillers[1] = plyKillers[0];
+			plyKillers[0] = move;
+		}
+
+		int[] table = history[color(move)];
+		int index = butterfly(move);
+		table[index] += depth * depth;
+		if (table[index] > HISTORY_MAX) {
+			ageHistory();
+		}
+	}
+
+	/**
+	 * Halves every history score, so old cutoffs count for less.
+	 */
+	private void ageHistory() {
+		for (int color = 0; color < history.length; color++) {
+			int[] table = history[color];
+			for (int i = 0; i < table.length; i++) {
+				table[i] >>= 1;
+			}
+		}
+	}
+
+	/**
+	 * Getter for history table index of move.
+	 *
+	 * @param move - packed move
+	 * @return from and to squares combined
+	 */
+	private static int butterfly(int move) {
+		return PackedMove.from(move) * 64 + PackedMove.to(move);
+	}
+
+	/**
+	 * Getter for color of moving piece.
+	 *
+	 * @param move - packed move
+	 * @return 0 for white, 1 for black
+	 */
+	private static int color(int move) {
+		return PackedMove.piece(move) < Piece.NUM_TYPES ? 0 : 1;
+	}
+}
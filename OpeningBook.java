@@ -0,0 +1,185 @@
+package main;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Opening book read straight from a memory-mapped file.
+ * <p>
+ * The file uses the Polyglot layout: 16-byte big-endian entries of key, move, weight
+ * and learn, sorted by key as an unsigned number. Moves are in Polyglot encoding, with
+ * castling written as the king taking its own rook. Keys are PolyglotKey's, so books
+ * made by Polyglot and other tools can be used as well as those made with BookBuilder.
+ * <p>
+ * The file is mapped read only and probed by binary search, so a probe takes
+ * microseconds and the book takes no heap beyond this object. Every process mapping
+ * the same file shares its pages through the page cache. Probes only read the mapping
+ * and may run on any number of threads at once.
+ *
+ * @author John Vnek
+ */
+public class OpeningBook {
+
+	public static final int ENTRY_BYTES = 16;
+
+	private static final int MAX_ENTRIES_PER_KEY = 64;
+
+	private MappedByteBuffer entries;
+	private int size;
+
+	/**
+	 * Constructor for OpeningBook, mapping the file.
+	 *
+	 * @param path - book file
+	 * @throws IOException if the file cannot be read or is not a whole number of entries
+	 */
+	public OpeningBook(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length % ENTRY_BYTES != 0 || length / ENTRY_BYTES > Integer.MAX_VALUE) {
+				throw new IOException("Not an opening book: " + path);
+			}
+			this.entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			this.entries.order(ByteOrder.BIG_ENDIAN);
+			this.size = (int) (length / ENTRY_BYTES);
+		}
+	}
+
+	/**
+	 * Getter for number of entries.
+	 *
+	 * @return entry count
+	 */
+	public int getEntries() {
+		return size;
+	}
+
+	/**
+	 * Picks a book move for the position, each with probability proportional to its weight.
+	 * <p>
+	 * Legal moves are generated into the caller's buffer, so probing allocates nothing.
+	 *
+	 * @param board - chess board Object
+	 * @param random - source of randomness, seeded for reproducible games
+	 * @param moves - buffer of at least MoveGenerator.MAX_MOVES moves, overwritten
+	 * @return packed legal move, NO_MOVE if the position is not in the book
+	 */
+	public int probe(Board board, Random random, int[] moves) {
+		long key = PolyglotKey.key(board);
+		int first = find(key);
+		if (first < 0) {
+			return PackedMove.NO_MOVE;
+		}
+
+		long total = 0;
+		int last = first;
+		while (last < size && last - first < MAX_ENTRIES_PER_KEY && key(last) == key) {
+			total += weight(last);
+			last++;
+		}
+		if (total == 0) {
+			return PackedMove.NO_MOVE;
+		}
+
+		long pick = (long) (random.nextDouble() * total);
+		int chosen = first;
+		for (int i = first; i < last; i++) {
+			pick -= weight(i);
+			if (pick < 0) {
+				chosen = i;
+				break;
+			}
+		}
+		return toMove(board, move(chosen), moves);
+	}
+
+	/**
+	 * Finds first entry with key by binary search.
+	 *
+	 * @param key - Polyglot key
+	 * @return index of first entry with key, -1 if none
+	 */
+	private int find(long key) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (Long.compareUnsigned(key(middle), key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low < size && key(low) == key ? low : -1;
+	}
+
+	/**
+	 * Getter for key of entry.
+	 *
+	 * @param index - entry index
+	 * @return Polyglot key
+	 */
+	private long key(int index) {
+		return entries.getLong(index * ENTRY_BYTES);
+	}
+
+	/**
+	 * Getter for Polyglot move of entry.
+	 *
+	 * @param index - entry index
+	 * @return move in Polyglot encoding
+	 */
+	private int move(int index) {
+		return entries.getShort(index * ENTRY_BYTES + 8) & 0xFFFF;
+	}
+
+	/**
+	 * Getter for weight of entry.
+	 *
+	 * @param index - entry index
+	 * @return weight, 0 to 65535
+	 */
+	private int weight(int index) {
+		return entries.getShort(index * ENTRY_BYTES + 10) & 0xFFFF;
+	}
+
+	/**
+	 * Finds legal move matching Polyglot move.
+	 *
+	 * @param board - chess board Object
+	 * @param polyglot - move in Polyglot encoding
+	 * @param moves - buffer for legal moves
+	 * @return packed move, NO_MOVE if no legal move matches
+	 */
+	private static int toMove(Board board, int polyglot, int[] moves) {
+		int count = MoveGenerator.generateLegal(board, moves);
+		for (int i = 0; i < count; i++) {
+			if (toPolyglot(moves[i]) == polyglot) {
+				return moves[i];
+			}
+		}
+		return PackedMove.NO_MOVE;
+	}
+
+	/**
+	 * Encodes packed move as Polyglot does.
+	 * <p>
+	 * Bits 0-5 hold the to square and bits 6-11 the from square, both a1 = 0 like ours,
+	 * and bits 12-14 the promotion piece from knight = 1 to queen = 4, the same numbering
+	 * as Piece's type constants. Castling is the king moving to its rook's square.
+	 *
+	 * @param move - packed move
+	 * @return move in Polyglot encoding
+	 */
+	public static int toPolyglot(int move) {
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		if ((PackedMove.flags(move) & Board.CASTLE) != 0) {
+			to = Bitboards.col(to) > Bitboards.col(from) ? to + 1 : to - 2;
+		}
+		return to | from << 6 | PackedMove.promotion(move) << 12;
+	}
+}
@@ -0,0 +1,135 @@
+package main;
+
+/**
+ * Static helpers for moves packed into a single int.
+ * <p>
+ * Bits 0-5 hold the start square, 6-11 the end square, 12-15 the moved piece's
+ * bitboard index, 16-19 the captured piece's index (NO_PIECE if none),
+ * 20-22 the promotion piece type (0 if none) and 23-25 the Board move flags.
+ * The value 0 is never a real move and is used as NO_MOVE.
+ *
+ * @author John Vnek
+ */
+public final class PackedMove {
+
+	public static final int NO_MOVE = 0;
+	public static final int NO_PIECE = 15;
+
+	/**
+	 * PackedMove is a collection of static helpers and is never instantiated.
+	 */
+	private PackedMove() {
+	}
+
+	/**
+	 * Packs move fields into an int.
+	 *
+	 * @param from - square piece starts on
+	 * @param to - square piece ends on
+	 * @param piece - bitboard index of piece moved
+	 * @param captured - bitboard index of piece captured, NO_PIECE if none
+	 * @param promotion - piece type promoted to, 0 if none
+	 * @param flags - Board.CASTLE, Board.EN_PASSANT and Board.PROMOTION bits
+	 * @return packed move
+	 */
+	public static int encode(int from, int to, int piece, int captured, int promotion, int flags) {
+		return from | (to << 6) | (piece << 12) | (captured << 16) | (promotion << 20) | (flags << 23);
+	}
+
+	/**
+	 * Getter for start square.
+	 *
+	 * @param move - packed move
+	 * @return square piece starts on
+	 */
+	public static int from(int move) {
+		return move & 63;
+	}
+
+	/**
+	 * Getter for end square.
+	 *
+	 * @param move - packed move
+	 * @return square piece ends on
+	 */
+	public static int to(int move) {
+		return (move >>> 6) & 63;
+	}
+
+	/**
+	 * Getter for moved piece.
+	 *
+	 * @param move - packed move
+	 * @return bitboard index of piece moved
+	 */
+	public static int piece(int move) {
+		return (move >>> 12) & 15;
+	}
+
+	/**
+	 * Getter for captured piece.
+	 *
+	 * @param move - packed move
+	 * @return bitboard index of piece captured, NO_PIECE if none
+	 */
+	public static int captured(int move) {
+		return (move >>> 16) & 15;
+	}
+
+	/**
+	 * Getter for promotion piece type.
+	 *
+	 * @param move - packed move
+	 * @return piece type promoted to, 0 if none
+	 */
+	public static int promotion(int move) {
+		return (move >>> 20) & 7;
+	}
+
+	/**
+	 * Getter for move flags.
+	 *
+	 * @param move - packed move
+	 * @return Board.CASTLE, Board.EN_PASSANT and Board.PROMOTION bits
+	 */
+	public static int flags(int move) {
+		return (move >>> 23) & 7;
+	}
+
+	/**
+	 * Checks if move captures a piece.
+	 *
+	 * @param move - packed move
+	 * @return true if capture, false if not
+	 */
+	public static boolean isCapture(int move) {
+		return captured(move) != NO_PIECE;
+	}
+
+	/**
+	 * Returns move in coordinate notation, such as e2e4 or e7e8q.
+	 *
+	 * @param move - packed move
+	 * @return String of move
+	 */
+	public static String toString(int move) {
+		if (move == NO_MOVE) {
+			return "0000";
+		}
+		String str = squareName(from(move)) + squareName(to(move));
+		if (promotion(move) != 0) {
+			str += "pnbrqk".charAt(promotion(move));
+		}
+		return str;
+	}
+
+	/**
+	 * Returns name of square, such as a1 or h8.
+	 *
+	 * @param square - square index
+	 * @return String of square
+	 */
+	public static String squareName(int square) {
+		return "" + (char) ('a' + Bitboards.col(square)) + (char) ('1' + Bitboards.row(square));
+	}
+}
@@ -17,11 +17,14 @@ public class Pawn extends Piece {
 	 * @param isWhite - true if white, false if not
 	 */
 	public Pawn(boolean isWhite) {
-		super(isWhite, 1);
+		super(isWhite, 1, PAWN);
 	}
 
 	/**
 	 * Checks if inputted move is valid move for Pawn.
+	 * <p>
+	 * Captures are looked up in the precomputed pawn attack table.
+	 * Otherwise the pawn moves forward one spot, or two if the spot in front is empty.
 	 * 
 	 * @param board - chess board Object
 	 * @param start - spot where piece starts
@@ -32,33 +35,18 @@ public class Pawn extends Piece {
 			return false;
 		}
 		
-		int xDiff = end.getX() - start.getX();
-		int absXDiff = Math.abs(xDiff);
-		
-		int yDiff = end.getY() - start.getY();
-		int absYDiff = Math.abs(yDiff);
-		
+		int from = Bitboards.square(start.getX(), start.getY());
+		int to = Bitboards.square(end.getX(), end.getY());
 		
-		if(yDiff < 0 && this.isWhite == true || yDiff > 0 && this.isWhite == false) {
-			return false;
-		}
-	
-		if ( (absXDiff == 1 && absYDiff != 1) || (absXDiff == 1 && absYDiff == 1 && end.getPiece() == null)) {
-			return false;
+		if (end.getPiece() != null) {
+			return (Bitboards.pawnAttacks(this.isWhite, from) & Bitboards.bit(to)) != 0;
 		}
 		
-		Spot front;
-		if (this.isWhite) {
-			front = board.getSpot(start.getX(), start.getY() + 1); // change to not create bound issue
-		} else {
-			front = board.getSpot(start.getX(), start.getY() - 1);
+		int forward = this.isWhite ? 8 : -8;
+		if (to == from + forward) {
+			return true;
 		}
-				
-		if ((front.getPiece() != null || end.getPiece() != null) && (absYDiff > 0 && absXDiff == 0)) {
-			return false;
-		}
-		
-		return absYDiff > 0 && absYDiff < 3 && absXDiff < 2;
+		return to == from + 2 * forward && board.getPiece(from + forward) == null;
 	}
 	
 	/**
@@ -0,0 +1,147 @@
+package main;
+
+import java.util.*;
+
+/**
+ * Small hash table of pawn structure scores, keyed by the board's pawn key.
+ * <p>
+ * The same pawn configuration comes up in a great many search positions,
+ * so its score and passed pawns are worked out once and looked up after that.
+ * Each slot holds the key, middlegame and endgame scores, and the passed pawns
+ * of both colors. A table belongs to one search thread and is not synchronized.
+ *
+ * @author John Vnek
+ */
+public class PawnHashTable {
+
+	public static final int DEFAULT_ENTRIES = 1 << 16;
+	public static final int NO_SLOT = -1;
+
+	private long[] keys;
+	private int[] middlegame;
+	private int[] endgame;
+	private long[] passed;
+	private int mask;
+	private long hits;
+	private long misses;
+
+	/**
+	 * Constructor for PawnHashTable.
+	 *
+	 * @param entries - number of slots, rounded down to a power of two
+	 */
+	public PawnHashTable(int entries) {
+		int size = Integer.highestOneBit(Math.max(1, entries));
+		this.keys = new long[size];
+		this.middlegame = new int[size];
+		this.endgame = new int[size];
+		this.passed = new long[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Looks up pawn key, counting the hit or miss.
+	 * <p>
+	 * Empty slots hold key 0, the key of a board without pawns, whose scores are 0 anyway.
+	 *
+	 * @param key - pawn key
+	 * @return slot holding key, NO_SLOT if not stored
+	 */
+	public int probe(long key) {
+		int slot = (int) key & mask;
+		if (keys[slot] == key) {
+			hits++;
+			return slot;
+		}
+		misses++;
+		return NO_SLOT;
+	}
+
+	/**
+	 * Stores pawn structure, replacing whatever was in its slot.
+	 *
+	 * @param key - pawn key
+	 * @param middlegameScore - middlegame score from white's point of view
+	 * @param endgameScore - endgame score from white's point of view
+	 * @param passedPawns - bitboard of passed pawns of both colors
+	 * @return slot written
+	 */
+	public int store(long key, int middlegameScore, int endgameScore, long passedPawns) {
+		int slot = (int) key & mask;
+		keys[slot] = key;
+		middlegame[slot] = middlegameScore;
+		endgame[slot] = endgameScore;
+		passed[slot] = passedPawns;
+		return slot;
+	}
+
+	/**
+	 * Getter for middlegame score in slot.
+	 *
+	 * @param slot - slot from probe or store
+	 * @return score from white's point of view
+	 */
+	public int getMiddlegame(int slot) {
+		return middlegame[slot];
+	}
+
+	/**
+	 * Getter for endgame score in slot.
+	 *
+	 * @param slot - slot from probe or store
+	 * @return score from white's point of view
+	 */
+	public int getEndgame(int slot) {
+		return endgame[slot];
+	}
+
+	/**
+	 * Getter for passed pawns in slot.
+	 *
+	 * @param slot - slot from probe or store
+	 * @return bitboard of passed pawns of both colors
+	 */
+	public long getPassed(int slot) {
+		return passed[slot];
+	}
+
+	/**
+	 * Empties table and resets counters.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(middlegame, 0);
+		Arrays.fill(endgame, 0);
+		Arrays.fill(passed, 0);
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Getter for lookups that found their pawn key.
+	 *
+	 * @return hit count
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Getter for lookups that did not, each of which ran the pawn analysis.
+	 *
+	 * @return miss count
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Getter for share of lookups that hit.
+	 *
+	 * @return hit rate, 0 if nothing was looked up
+	 */
+	public double getHitRate() {
+		long probes = hits + misses;
+		return probes == 0 ? 0 : (double) hits / probes;
+	}
+}
@@ -0,0 +1,295 @@
+package main;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+/**
+ * Counts the leaf positions of the legal move tree to a fixed depth (perft).
+ * <p>
+ * Comparing the counts with published ones checks move generation and
+ * make/unmake; comparing nodes per second tracks their speed. At the last ply
+ * the legal moves are counted instead of made (bulk counting). Subtree counts
+ * can be cached in a hash table, and root moves can be split over a fork-join pool,
+ * each worker counting on its own copy of the board.
+ * <p>
+ * Usage:
+ * <pre>
+ * Perft reference [max depth] [threads] [hash MB]
+ * Perft "fen" depth [divide] [threads] [hash MB]
+ * </pre>
+ *
+ * @author John Vnek
+ */
+public class Perft {
+
+	/**
+	 * Standard test positions with their published counts from depth 1 up.
+	 */
+	private static final String[] REFERENCE_FENS = {
+		Board.STARTING_FEN,
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+		"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+	};
+	private static final long[][] REFERENCE_COUNTS = {
+		{20, 400, 8902, 197281, 4865609, 119060324},
+		{48, 2039, 97862, 4085603, 193690690},
+		{14, 191, 2812, 43238, 674624, 11030083},
+		{6, 264, 9467, 422333, 15833292},
+		{44, 1486, 62379, 2103487, 89941194},
+		{46, 2079, 89890, 3894594, 164075551},
+	};
+	private static final int DEFAULT_REFERENCE_DEPTH = 5;
+	private static final int BYTES_PER_ENTRY = 16;
+
+	private int[][] moveBuffers;
+	private long[] hashSlots;
+	private int hashMask;
+
+	/**
+	 * Constructor for Perft.
+	 *
+	 * @param hashSlots - shared cache of subtree counts, two longs per entry, null for none
+	 */
+	public Perft(long[] hashSlots) {
+		this.moveBuffers = new int[Search.MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+		this.hashSlots = hashSlots;
+		this.hashMask = hashSlots == null ? 0 : hashSlots.length / 2 - 1;
+	}
+
+	/**
+	 * Creates a hash table for subtree counts.
+	 *
+	 * @param megabytes - memory budget, rounded down to a power of two number of entries, 0 for none
+	 * @return table to share between Perft objects, null if megabytes is 0
+	 */
+	public static long[] createHash(int megabytes) {
+		if (megabytes <= 0) {
+			return null;
+		}
+		long entries = Long.highestOneBit(megabytes * 1024L * 1024L / BYTES_PER_ENTRY);
+		return new long[(int) Math.min(entries, 1L << 28) * 2];
+	}
+
+	/**
+	 * Counts leaf positions to depth.
+	 *
+	 * @param board - chess board Object, left as it was found
+	 * @param depth - depth in plies
+	 * @return leaf count
+	 */
+	public long perft(Board board, int depth) {
+		if (depth <= 0) {
+			return 1;
+		}
+		int[] moves = moveBuffers[depth];
+		if (depth == 1) {
+			return MoveGenerator.generateLegal(board, moves);
+		}
+
+		long key = board.hash() ^ depth;
+		int slot = ((int) key & hashMask) * 2;
+		if (hashSlots != null) {
+			long count = hashSlots[slot + 1];
+			if ((hashSlots[slot] ^ count) == key) {
+				return count;
+			}
+		}
+
+		int count = MoveGenerator.generateLegal(board, moves);
+		long nodes = 0;
+		for (int i = 0; i < count; i++) {
+			board.makeMove(moves[i]);
+			nodes += perft(board, depth - 1);
+			board.unmakeMove();
+		}
+
+		if (hashSlots != null) {
+			hashSlots[slot] = key ^ nodes;
+			hashSlots[slot + 1] = nodes;
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts leaf positions below each root move.
+	 * <p>
+	 * With a pool, root moves are counted in parallel on per-thread board copies.
+	 *
+	 * @param board - chess board Object, left as it was found
+	 * @param depth - depth in plies, at least 1
+	 * @param pool - pool to split root moves over, null to count on this thread
+	 * @param hashSlots - shared cache of subtree counts, null for none
+	 * @param rootMoves - buffer receiving legal root moves
+	 * @param counts - buffer receiving leaf count below each root move
+	 * @return number of root moves
+	 */
+	public static int divide(Board board, int depth, ForkJoinPool pool, long[] hashSlots, int[] rootMoves, long[] counts) {
+		int count = MoveGenerator.generateLegal(board, rootMoves);
+		if (pool == null) {
+			Perft perft = new Perft(hashSlots);
+			for (int i = 0; i < count; i++) {
+				board.makeMove(rootMoves[i]);
+				counts[i] = perft.perft(board, depth - 1);
+				board.unmakeMove();
+			}
+		} else {
+			ThreadLocal<Perft> perfts = ThreadLocal.withInitial(() -> new Perft(hashSlots));
+			ThreadLocal<Board> boards = ThreadLocal.withInitial(Board::new);
+			pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, count).parallel().forEach(i -> {
+				Board copy = boards.get();
+				copy.copyFrom(board);
+				copy.makeMove(rootMoves[i]);
+				counts[i] = perfts.get().perft(copy, depth - 1);
+			})));
+		}
+		return count;
+	}
+
+	/**
+	 * Counts leaf positions to depth, splitting root moves over a pool if given.
+	 *
+	 * @param board - chess board Object, left as it was found
+	 * @param depth - depth in plies
+	 * @param pool - pool to split root moves over, null to count on this thread
+	 * @param hashSlots - shared cache of subtree counts, null for none
+	 * @return leaf count
+	 */
+	public static long count(Board board, int depth, ForkJoinPool pool, long[] hashSlots) {
+		if (depth <= 1) {
+			return new Perft(null).perft(board, depth);
+		}
+		int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+		long[] counts = new long[MoveGenerator.MAX_MOVES];
+		int count = divide(board, depth, pool, hashSlots, rootMoves, counts);
+		long nodes = 0;
+		for (int i = 0; i < count; i++) {
+			nodes += counts[i];
+		}
+		return nodes;
+	}
+
+	/**
+	 * Runs reference positions or a single position from the command line.
+	 *
+	 * @param args - see class comment
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.out.println("Usage: Perft reference [max depth] [threads] [hash MB]");
+			System.out.println("       Perft \"fen\" depth [divide] [threads] [hash MB]");
+			return;
+		}
+
+		if (args[0].equals("reference")) {
+			int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_REFERENCE_DEPTH;
+			ForkJoinPool pool = createPool(args.length > 2 ? Integer.parseInt(args[2]) : 1);
+			long[] hashSlots = createHash(args.length > 3 ? Integer.parseInt(args[3]) : 0);
+			boolean passed = runReference(maxDepth, pool, hashSlots);
+			shutdown(pool);
+			if (!passed) {
+				System.exit(1);
+			}
+			return;
+		}
+
+		Board board = Board.fromFen(args[0]);
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		int next = 2;
+		boolean divide = args.length > next && args[next].equals("divide");
+		if (divide) {
+			next++;
+		}
+		ForkJoinPool pool = createPool(args.length > next ? Integer.parseInt(args[next]) : 1);
+		long[] hashSlots = createHash(args.length > next + 1 ? Integer.parseInt(args[next + 1]) : 0);
+
+		long start = System.nanoTime();
+		long nodes;
+		if (divide && depth >= 1) {
+			int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+			long[] counts = new long[MoveGenerator.MAX_MOVES];
+			int count = divide(board, depth, pool, hashSlots, rootMoves, counts);
+			nodes = 0;
+			for (int i = 0; i < count; i++) {
+				System.out.println(PackedMove.toString(rootMoves[i]) + ": " + counts[i]);
+				nodes += counts[i];
+			}
+			System.out.println();
+		} else {
+			nodes = count(board, depth, pool, hashSlots);
+		}
+		report(depth, nodes, System.nanoTime() - start);
+		shutdown(pool);
+	}
+
+	/**
+	 * Counts every reference position up to max depth and compares with the published counts.
+	 *
+	 * @param maxDepth - deepest depth to count
+	 * @param pool - pool to split root moves over, null to count on this thread
+	 * @param hashSlots - shared cache of subtree counts, null for none
+	 * @return true if every count matched, false if not
+	 */
+	private static boolean runReference(int maxDepth, ForkJoinPool pool, long[] hashSlots) {
+		boolean passed = true;
+		long totalNodes = 0;
+		long totalTime = 0;
+		for (int i = 0; i < REFERENCE_FENS.length; i++) {
+			Board board = Board.fromFen(REFERENCE_FENS[i]);
+			System.out.println(REFERENCE_FENS[i]);
+			for (int depth = 1; depth <= Math.min(maxDepth, REFERENCE_COUNTS[i].length); depth++) {
+				if (hashSlots != null) {
+					Arrays.fill(hashSlots, 0);
+				}
+				long start = System.nanoTime();
+				long nodes = count(board, depth, pool, hashSlots);
+				long time = System.nanoTime() - start;
+				long expected = REFERENCE_COUNTS[i][depth - 1];
+				boolean match = nodes == expected;
+				passed &= match;
+				totalNodes += nodes;
+				totalTime += time;
+				System.out.printf("  depth %d: %12d %s (expected %d) %8d ms%n", depth, nodes, match ? "ok  " : "FAIL", expected, time / 1000000);
+			}
+		}
+		System.out.println(passed ? "All reference counts match" : "Some reference counts do not match");
+		report(maxDepth, totalNodes, totalTime);
+		return passed;
+	}
+
+	/**
+	 * Prints leaf count, time and nodes per second.
+	 *
+	 * @param depth - depth counted
+	 * @param nodes - leaf count
+	 * @param time - nanoseconds taken
+	 */
+	private static void report(int depth, long nodes, long time) {
+		long nps = nodes * 1000000000L / Math.max(1, time);
+		System.out.printf("depth %d nodes %d time %d ms nps %d%n", depth, nodes, time / 1000000, nps);
+	}
+
+	/**
+	 * Creates pool for splitting root moves.
+	 *
+	 * @param threads - number of threads
+	 * @return pool, null if threads is 1 or less
+	 */
+	private static ForkJoinPool createPool(int threads) {
+		return threads > 1 ? new ForkJoinPool(threads) : null;
+	}
+
+	/**
+	 * Shuts down pool if there is one.
+	 *
+	 * @param pool - pool to shut down, may be null
+	 */
+	private static void shutdown(ForkJoinPool pool) {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+}
@@ -7,20 +7,68 @@ package main;
  */
 public abstract class Piece {
 	
+	public static final int PAWN = 0;
+	public static final int KNIGHT = 1;
+	public static final int BISHOP = 2;
+	public static final int ROOK = 3;
+	public static final int QUEEN = 4;
+	public static final int KING = 5;
+	public static final int NUM_TYPES = 6;
+	
 	protected boolean captured;
 	protected boolean isWhite;
 	private int value;
+	private int type;
 
 	/**
 	 * Constructor for Piece Object.
 	 * 
 	 * @param isWhite - boolean of whether piece is white (true) or black (false)
 	 * @param value - value of piece compared to others
+	 * @param type - piece type constant (PAWN through KING)
 	 */
-	public Piece(boolean isWhite, int value) {
+	public Piece(boolean isWhite, int value, int type) {
 		this.captured = false;
 		this.isWhite = isWhite;
 		this.value = value;
+		this.type = type;
+	}
+	
+	/**
+	 * Returns index of bitboard holding pieces of given type and color.
+	 * <p>
+	 * White pieces use indices 0 to 5, black pieces use 6 to 11.
+	 * 
+	 * @param type - piece type constant
+	 * @param isWhite - true if white, false if black
+	 * @return bitboard index
+	 */
+	public static int index(int type, boolean isWhite) {
+		return isWhite ? type : type + NUM_TYPES;
+	}
+	
+	/**
+	 * Creates piece of given type and color.
+	 * 
+	 * @param type - piece type constant
+	 * @param isWhite - true if white, false if black
+	 * @return new piece
+	 */
+	public static Piece create(int type, boolean isWhite) {
+		switch (type) {
+		case PAWN:
+			return new Pawn(isWhite);
+		case KNIGHT:
+			return new Knight(isWhite);
+		case BISHOP:
+			return new Bishop(isWhite);
+		case ROOK:
+			return new Rook(isWhite);
+		case QUEEN:
+			return new Queen(isWhite);
+		default:
+			return new King(isWhite);
+		}
 	}
 	
 	/**
@@ -87,6 +135,24 @@ public abstract class Piece {
 		return value;
 	}
 	
+	/**
+	 * Getter for piece type.
+	 * 
+	 * @return type constant (PAWN through KING)
+	 */
+	public int getType() {
+		return type;
+	}
+	
+	/**
+	 * Getter for index of bitboard holding this piece.
+	 * 
+	 * @return bitboard index
+	 */
+	public int getIndex() {
+		return index(type, isWhite);
+	}
+	
 	/**
 	 * String representation of piece's color.
 	 * 
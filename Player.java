@@ -21,6 +21,25 @@ public abstract class Player {
 	 */
 	public abstract void turn(Board board, List<Move> moveTracker, List<Piece> piecesCaptured);
 	
+	/**
+	 * Finalizes move by making it on the board, adding it to game moveTracker list, and updating piecesCaptured list.
+	 * 
+	 * @param board - chess board Object
+	 * @param move - move being made
+	 * @param moveTracker - list of all game's moves
+	 * @param piecesCaptured - list of all pieces captured
+	 */
+	protected void playMove(Board board, Move move, List<Move> moveTracker, List<Piece> piecesCaptured) {
+		board.makeMove(move);
+		
+		Piece captured = move.getPieceCaptured();
+		if (captured != null) {
+			captured.setCaptured(true);
+			piecesCaptured.add(captured);
+		}
+		moveTracker.add(move);
+	}
+	
 	/**
 	 * Getter for whitePieces (boolean of whether player is using white pieces)
 	 * 
@@ -0,0 +1,785 @@
+package main;
+
+import java.util.function.*;
+
+/**
+ * Negamax alpha-beta search used by the computer to pick moves.
+ * <p>
+ * Searches with iterative deepening, so each iteration starts from the best move
+ * and transposition table entries of the one before it. Deeper iterations use an
+ * aspiration window around the previous score, and every node after the first move
+ * is searched with a null window (principal variation search), only re-searched
+ * when it turns out better than expected. Below the root, MoveOrdering puts the
+ * moves most likely to cut off first. At the horizon a quiescence search plays out
+ * captures and promotions, so a position is not judged in the middle of an exchange.
+ * <p>
+ * A position that repeats one earlier in the line being searched, or occurs for the
+ * third time counting the game's moves before the root, is scored as a draw before
+ * the transposition table is probed, so no table entry can hide the repetition.
+ * <p>
+ * With Bitbases set, drawn endings are cut off at once wherever they are reached, and
+ * so are won and lost ones with other material than the root, such as after a promotion
+ * or a capture into the ending. Those are scored as a known win plus progress towards
+ * mate, less a little for each ply it takes to get there, so converting sooner is better.
+ * Endings with the root's own material are only scored that way at the horizon; above
+ * it they are searched so mates are found.
+ * <p>
+ * A TimeManager bounds how long the search runs. When it stops the search, the
+ * unfinished iteration is thrown away and the best move of the last completed one is kept.
+ * An iteration listener, if set, is told about each completed iteration as it ends.
+ * <p>
+ * Scores are in hundredths of a pawn from the side to move's point of view.
+ * Move and PV buffers are allocated once per Search, so searching allocates nothing.
+ * A Search is used by one thread at a time.
+ *
+ * @author John Vnek
+ */
+public class Search {
+
+	public static final int INFINITY = 32000;
+	public static final int MATE = 30000;
+	public static final int MAX_PLY = 64;
+	public static final int PAWN_SCORE = 100;
+	public static final int KNOWN_WIN = 20000;
+
+	private static final int MATE_BOUND = MATE - MAX_PLY;
+	private static final int ASPIRATION_DEPTH = 3;
+	private static final int ASPIRATION_WINDOW = PAWN_SCORE / 2;
+	private static final int DELTA_MARGIN = 2 * PAWN_SCORE;
+	private static final int KNOWN_WIN_PLY_PENALTY = 10;
+
+	private TranspositionTable table;
+	private TimeManager unlimited;
+	private TimeManager time;
+	private boolean aborted;
+	private int helper;
+	private Board board;
+	private int[][] moveBuffers;
+	private int[][] scoreBuffers;
+	private MoveOrdering ordering;
+	private PawnHashTable pawnTable;
+	private Bitbases bitbases;
+	private Consumer<Search> iterationListener;
+	private int[][] pvTable;
+	private int[] pvLength;
+	private int[] bestLine;
+	private int bestLineLength;
+	private long nodes;
+	private long quiescenceNodes;
+	private long cutoffs;
+	private long firstMoveCutoffs;
+	private long moveGenerations;
+	private long evaluations;
+	private long bitbaseHits;
+	private long pawnHitsBefore;
+	private long pawnMissesBefore;
+	private int rootMaterial;
+	private int completedDepth;
+	private int bestMove;
+	private int bestScore;
+
+	/**
+	 * Constructor for Search.
+	 *
+	 * @param table - transposition table shared with other searches of the same player
+	 */
+	public Search(TranspositionTable table) {
+		this.table = table;
+		this.unlimited = new TimeManager();
+		this.moveBuffers = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+		this.scoreBuffers = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+		this.ordering = new MoveOrdering(MAX_PLY);
+		this.pawnTable = new PawnHashTable(PawnHashTable.DEFAULT_ENTRIES);
+		this.pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+		this.pvLength = new int[MAX_PLY + 1];
+		this.bestLine = new int[MAX_PLY + 1];
+	}
+
+	/**
+	 * Searches root moves one iteration deeper at a time up to max depth.
+	 * <p>
+	 * Root moves are searched in the order given, except that after each iteration
+	 * its best move is moved to the front. The board is left as it was found.
+	 *
+	 * @param board - chess board Object, side to move is the side searching
+	 * @param rootMoves - legal packed moves, best guess first
+	 * @param count - number of root moves
+	 * @param maxDepth - deepest iteration in plies, at least 1
+	 * @return best move of deepest iteration
+	 */
+	public int search(Board board, int[] rootMoves, int count, int maxDepth) {
+		unlimited.startInfinite();
+		return search(board, rootMoves, count, maxDepth, unlimited);
+	}
+
+	/**
+	 * Searches root moves one iteration deeper at a time until max depth or time runs out.
+	 * <p>
+	 * The first iteration always starts; later ones only while time manager allows it.
+	 * The board is left as it was found, even when the search is stopped.
+	 * <p>
+	 * A helper search skips the first iteration if its number is odd and searches
+	 * the root moves after the first in a rotated order, so helpers sharing a
+	 * transposition table spread out over different parts of the tree.
+	 *
+	 * @param board - chess board Object, side to move is the side searching
+	 * @param rootMoves - legal packed moves, best guess first
+	 * @param count - number of root moves
+	 * @param maxDepth - deepest iteration in plies, at least 1
+	 * @param time - time manager, already started
+	 * @return best move of deepest completed iteration
+	 */
+	public int search(Board board, int[] rootMoves, int count, int maxDepth, TimeManager time) {
+		this.time = time;
+		this.aborted = false;
+		this.board = board;
+		this.nodes = 0;
+		this.quiescenceNodes = 0;
+		this.cutoffs = 0;
+		this.firstMoveCutoffs = 0;
+		this.moveGenerations = 0;
+		this.evaluations = 0;
+		this.bitbaseHits = 0;
+		this.pawnHitsBefore = pawnTable.getHits();
+		this.pawnMissesBefore = pawnTable.getMisses();
+		this.rootMaterial = material(board);
+		this.completedDepth = 0;
+		this.bestLineLength = 0;
+		ordering.newSearch();
+		this.bestMove = count > 0 ? rootMoves[0] : PackedMove.NO_MOVE;
+		this.bestScore = 0;
+		maxDepth = Math.min(maxDepth, MAX_PLY);
+		int startDepth = Math.min(1 + helper % 2, maxDepth);
+		if (helper > 0 && count > 2) {
+			rotate(rootMoves, 1, count, helper % (count - 1));
+		}
+
+		for (int depth = startDepth; depth <= maxDepth && count > 0 && (depth == startDepth || time.canStartIteration()); depth++) {
+			int alpha = -INFINITY;
+			int beta = INFINITY;
+			int window = ASPIRATION_WINDOW;
+			if (depth >= ASPIRATION_DEPTH) {
+				alpha = Math.max(bestScore - window, -INFINITY);
+				beta = Math.min(bestScore + window, INFINITY);
+			}
+
+			EngineEvents.Iteration iteration = null;
+			if (EngineEvents.isEnabled(EngineEvents.Iteration.class)) {
+				iteration = new EngineEvents.Iteration();
+				iteration.begin();
+			}
+			int researches = 0;
+			int score;
+			while (true) {
+				score = searchRoot(rootMoves, count, depth, alpha, beta);
+				if (aborted) {
+					break;
+				} else if (score <= alpha && alpha > -INFINITY) {
+					window *= 2;
+					alpha = Math.max(score - window, -INFINITY);
+				} else if (score >= beta && beta < INFINITY) {
+					window *= 2;
+					beta = Math.min(score + window, INFINITY);
+				} else {
+					break;
+				}
+				researches++;
+			}
+
+			if (iteration != null) {
+				iteration.end();
+				if (iteration.shouldCommit()) {
+					iteration.helper = helper;
+					iteration.depth = depth;
+					iteration.score = aborted ? bestScore : score;
+					iteration.bestMove = PackedMove.toString(aborted ? bestMove : pvTable[0][0]);
+					iteration.nodes = nodes;
+					iteration.researches = researches;
+					iteration.aborted = aborted;
+					iteration.commit();
+				}
+			}
+			if (aborted) {
+				break;
+			}
+			bestScore = score;
+			bestMove = pvTable[0][0];
+			bestLineLength = pvLength[0];
+			System.arraycopy(pvTable[0], 0, bestLine, 0, bestLineLength);
+			completedDepth = depth;
+			moveToFront(rootMoves, count, bestMove);
+			if (iterationListener != null) {
+				iterationListener.accept(this);
+			}
+
+			if (Math.abs(bestScore) >= MATE_BOUND) {
+				break;
+			}
+		}
+		this.board = null;
+		this.time = null;
+		return bestMove;
+	}
+
+	/**
+	 * Searches every root move at given depth.
+	 *
+	 * @param rootMoves - legal packed moves
+	 * @param count - number of root moves
+	 * @param depth - remaining depth in plies
+	 * @param alpha - lower bound of window
+	 * @param beta - upper bound of window
+	 * @return score of best root move, or a bound on it if outside the window, 0 if aborted
+	 */
+	private int searchRoot(int[] rootMoves, int count, int depth, int alpha, int beta) {
+		nodes++;
+		pvLength[0] = 0;
+		int best = -INFINITY;
+		boolean recorded = EngineEvents.isEnabled(EngineEvents.RootMove.class);
+
+		for (int i = 0; i < count; i++) {
+			int move = rootMoves[i];
+			EngineEvents.RootMove event = null;
+			if (recorded) {
+				event = new EngineEvents.RootMove();
+				event.begin();
+			}
+			long startNodes = nodes;
+			board.makeMove(move);
+			int score;
+			if (i == 0) {
+				score = -negamax(depth - 1, -beta, -alpha, 1, true);
+			} else {
+				score = -negamax(depth - 1, -alpha - 1, -alpha, 1, false);
+				if (score > alpha && score < beta) {
+					score = -negamax(depth - 1, -beta, -alpha, 1, true);
+				}
+			}
+			board.unmakeMove();
+			if (aborted) {
+				return 0;
+			}
+
+			if (event != null) {
+				event.end();
+				if (event.shouldCommit()) {
+					event.helper = helper;
+					event.depth = depth;
+					event.move = PackedMove.toString(move);
+					event.score = score;
+					event.nodes = nodes - startNodes;
+					event.commit();
+				}
+			}
+
+			if (score > best) {
+				best = score;
+				if (score > alpha) {
+					alpha = score;
+					updatePv(0, move);
+				}
+				if (score >= beta) {
+					break;
+				}
+			}
+		}
+
+		if (pvLength[0] == 0) {
+			pvTable[0][0] = rootMoves[0];
+			pvLength[0] = 1;
+		}
+		return best;
+	}
+
+	/**
+	 * Negamax alpha-beta search of the position on the board.
+	 *
+	 * @param depth - remaining depth in plies
+	 * @param alpha - lower bound of window
+	 * @param beta - upper bound of window
+	 * @param ply - distance from root
+	 * @param pvNode - true if searched with a full window
+	 * @return score from side to move's point of view, 0 if aborted
+	 */
+	private int negamax(int depth, int alpha, int beta, int ply, boolean pvNode) {
+		if ((++nodes & (TimeManager.CHECK_INTERVAL - 1)) == 0 && checkLimits()) {
+			aborted = true;
+		}
+		if (aborted) {
+			return 0;
+		}
+		pvLength[ply] = 0;
+		boolean white = board.isWhiteToMove();
+		long king = board.getPieces(Piece.KING, white);
+		if (king == 0) {
+			return -MATE + ply;
+		}
+		if (board.getHalfmoveClock() >= 100 || board.isRepetition(ply)) {
+			return 0;
+		}
+		int known = bitbases == null ? Bitbases.UNKNOWN : bitbases.probe(board);
+		if (known == Bitbases.DRAW || (known != Bitbases.UNKNOWN
+				&& (depth <= 0 || ply >= MAX_PLY || material(board) != rootMaterial))) {
+			bitbaseHits++;
+			return bitbaseScore(known, ply);
+		}
+		if (depth <= 0 || ply >= MAX_PLY) {
+			return quiescence(alpha, beta, ply);
+		}
+
+		long key = board.hash();
+		long data = table.probe(key);
+		int ttMove = PackedMove.NO_MOVE;
+		if (data != 0) {
+			ttMove = TranspositionTable.move(data);
+			if (!pvNode && TranspositionTable.depth(data) >= depth) {
+				int score = scoreFromTable(TranspositionTable.score(data), ply);
+				int bound = TranspositionTable.bound(data);
+				if (bound == TranspositionTable.EXACT
+						|| (bound == TranspositionTable.LOWER && score >= beta)
+						|| (bound == TranspositionTable.UPPER && score <= alpha)) {
+					return score;
+				}
+			}
+		}
+
+		int[] moves = moveBuffers[ply];
+		int[] scores = scoreBuffers[ply];
+		int count = MoveGenerator.generate(board, moves);
+		moveGenerations++;
+		ordering.score(board, moves, scores, count, ply, ttMove);
+
+		int originalAlpha = alpha;
+		int best = -INFINITY;
+		int bestMove = PackedMove.NO_MOVE;
+		int legal = 0;
+		for (int i = 0; i < count; i++) {
+			int move = MoveOrdering.pickNext(moves, scores, i, count);
+			board.makeMove(move);
+			if (board.isAttacked(Bitboards.first(board.getPieces(Piece.KING, white)), !white)) {
+				board.unmakeMove();
+				continue;
+			}
+
+			int score;
+			if (legal++ == 0) {
+				score = -negamax(depth - 1, -beta, -alpha, ply + 1, pvNode);
+			} else {
+				score = -negamax(depth - 1, -alpha - 1, -alpha, ply + 1, false);
+				if (score > alpha && score < beta) {
+					score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+				}
+			}
+			board.unmakeMove();
+			if (aborted) {
+				return 0;
+			}
+
+			if (score > best) {
+				best = score;
+				bestMove = move;
+				if (score > alpha) {
+					alpha = score;
+					updatePv(ply, move);
+				}
+				if (score >= beta) {
+					cutoffs++;
+					if (legal == 1) {
+						firstMoveCutoffs++;
+					}
+					ordering.cutoff(move, ply, depth);
+					break;
+				}
+			}
+		}
+
+		if (legal == 0) {
+			return board.isAttacked(Bitboards.first(king), !white) ? -MATE + ply : 0;
+		}
+
+		int bound = best >= beta ? TranspositionTable.LOWER
+				: best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+		table.store(key, depth, bound, scoreToTable(best, ply), bestMove);
+		return best;
+	}
+
+	/**
+	 * Searches captures and queen promotions until the position is quiet.
+	 * <p>
+	 * The side to move may stand pat on the static evaluation instead of capturing.
+	 * Captures that could not raise the score to alpha even with a margin
+	 * to spare are skipped (delta pruning), and so are captures that lose
+	 * material by static exchange evaluation, except promotions.
+	 *
+	 * @param alpha - lower bound of window
+	 * @param beta - upper bound of window
+	 * @param ply - distance from root
+	 * @return score from side to move's point of view, 0 if aborted
+	 */
+	private int quiescence(int alpha, int beta, int ply) {
+		if ((++nodes & (TimeManager.CHECK_INTERVAL - 1)) == 0 && checkLimits()) {
+			aborted = true;
+		}
+		if (aborted) {
+			return 0;
+		}
+		quiescenceNodes++;
+		pvLength[ply] = 0;
+		boolean white = board.isWhiteToMove();
+		if (board.getPieces(Piece.KING, white) == 0) {
+			return -MATE + ply;
+		}
+		int known = bitbases == null ? Bitbases.UNKNOWN : bitbases.probe(board);
+		if (known != Bitbases.UNKNOWN) {
+			bitbaseHits++;
+			return bitbaseScore(known, ply);
+		}
+
+		int standPat = Evaluation.evaluate(board, pawnTable);
+		evaluations++;
+		if (standPat >= beta || ply >= MAX_PLY) {
+			return standPat;
+		}
+		if (standPat > alpha) {
+			alpha = standPat;
+		}
+
+		int[] moves = moveBuffers[ply];
+		int[] scores = scoreBuffers[ply];
+		int count = MoveGenerator.generateCaptures(board, moves);
+		moveGenerations++;
+		ordering.score(board, moves, scores, count, ply, PackedMove.NO_MOVE);
+
+		int best = standPat;
+		for (int i = 0; i < count; i++) {
+			int move = MoveOrdering.pickNext(moves, scores, i, count);
+			if (PackedMove.promotion(move) == 0
+					&& (standPat + Evaluation.material(PackedMove.captured(move) % Piece.NUM_TYPES) + DELTA_MARGIN <= alpha
+					|| MoveOrdering.isLosing(scores[i]))) {
+				continue;
+			}
+
+			board.makeMove(move);
+			if (board.isAttacked(Bitboards.first(board.getPieces(Piece.KING, white)), !white)) {
+				board.unmakeMove();
+				continue;
+			}
+			int score = -quiescence(-beta, -alpha, ply + 1);
+			board.unmakeMove();
+			if (aborted) {
+				return 0;
+			}
+
+			if (score > best) {
+				best = score;
+				if (score > alpha) {
+					alpha = score;
+					updatePv(ply, move);
+				}
+				if (score >= beta) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Turns bitbase result into score, a won ending scoring more the nearer it is to mate.
+	 * <p>
+	 * A lost position with no legal move is checkmate and gets the mate score, so mates
+	 * at the horizon are still told apart from positions that are merely lost.
+	 *
+	 * @param result - WIN, DRAW or LOSS for the side to move
+	 * @param ply - distance from root
+	 * @return score from side to move's point of view
+	 */
+	private int bitbaseScore(int result, int ply) {
+		if (result == Bitbases.DRAW) {
+			return 0;
+		} else if (result == Bitbases.LOSS && MoveGenerator.generateLegal(board, moveBuffers[ply]) == 0) {
+			return -MATE + ply;
+		}
+		int score = KNOWN_WIN + Bitbases.progress(board) - KNOWN_WIN_PLY_PENALTY * ply;
+		return result == Bitbases.WIN ? score : -score;
+	}
+
+	/**
+	 * Sums up material on the board, to tell endings apart after a capture or promotion.
+	 *
+	 * @param board - chess board Object
+	 * @return number of pieces and number of pawns combined
+	 */
+	private static int material(Board board) {
+		long pawns = board.getPieces(Piece.PAWN, true) | board.getPieces(Piece.PAWN, false);
+		return Bitboards.count(board.getOccupied()) << 4 | Bitboards.count(pawns);
+	}
+
+	/**
+	 * Records move as best at ply, followed by the best line found below it.
+	 *
+	 * @param ply - distance from root
+	 * @param move - packed move
+	 */
+	private void updatePv(int ply, int move) {
+		pvTable[ply][0] = move;
+		int length = pvLength[ply + 1];
+		System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, length);
+		pvLength[ply] = length + 1;
+	}
+
+	/**
+	 * Moves one move to the front of a buffer, keeping the order of the rest.
+	 *
+	 * @param moves - buffer of packed moves
+	 * @param count - number of moves in buffer
+	 * @param move - move to put first, ignored if not in buffer
+	 */
+	private static void moveToFront(int[] moves, int count, int move) {
+		if (move == PackedMove.NO_MOVE) {
+			return;
+		}
+		for (int i = 0; i < count; i++) {
+			if (moves[i] == move) {
+				System.arraycopy(moves, 0, moves, 1, i);
+				moves[0] = move;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Rotates part of a buffer left.
+	 *
+	 * @param moves - buffer of packed moves
+	 * @param start - first index of part
+	 * @param end - index after last of part
+	 * @param distance - places to rotate, less than part's length
+	 */
+	private static void rotate(int[] moves, int start, int end, int distance) {
+		for (int i = 0; i < distance; i++) {
+			int first = moves[start];
+			System.arraycopy(moves, start + 1, moves, start, end - start - 1);
+			moves[end - 1] = first;
+		}
+	}
+
+	/**
+	 * Converts mate score to distance from the stored position.
+	 *
+	 * @param score - score relative to root
+	 * @param ply - distance from root
+	 * @return score to store
+	 */
+	private static int scoreToTable(int score, int ply) {
+		if (score >= MATE_BOUND) {
+			return score + ply;
+		} else if (score <= -MATE_BOUND) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	/**
+	 * Converts stored mate score back to distance from root.
+	 *
+	 * @param score - stored score
+	 * @param ply - distance from root
+	 * @return score relative to root
+	 */
+	private static int scoreFromTable(int score, int ply) {
+		if (score >= MATE_BOUND) {
+			return score - ply;
+		} else if (score <= -MATE_BOUND) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	/**
+	 * Checks if search should stop. Only the main search counts its nodes against
+	 * the node limit; helpers read the clock alone, so a node limit stops every thread
+	 * together once the main search reaches it, however many threads are running.
+	 *
+	 * @return true if search should be abandoned, false if not
+	 */
+	private boolean checkLimits() {
+		return helper == 0 ? time.checkLimits(nodes) : time.checkTime();
+	}
+
+	/**
+	 * Setter for helper number, 0 for the main search.
+	 *
+	 * @param helper - helper number
+	 */
+	public void setHelper(int helper) {
+		this.helper = helper;
+	}
+
+	/**
+	 * Getter for endgame bitbases probed by this search.
+	 *
+	 * @return bitbases, null if none
+	 */
+	public Bitbases getBitbases() {
+		return bitbases;
+	}
+
+	/**
+	 * Setter for endgame bitbases probed by this search.
+	 *
+	 * @param bitbases - bitbases, null for none
+	 */
+	public void setBitbases(Bitbases bitbases) {
+		this.bitbases = bitbases;
+	}
+
+	/**
+	 * Setter for listener called after each completed iteration, on the searching thread.
+	 * <p>
+	 * The listener can read the iteration's depth, score, nodes and principal variation
+	 * from the getters; it must not keep the search waiting.
+	 *
+	 * @param iterationListener - listener, null for none
+	 */
+	public void setIterationListener(Consumer<Search> iterationListener) {
+		this.iterationListener = iterationListener;
+	}
+
+	/**
+	 * Getter for number of positions visited by the last search.
+	 *
+	 * @return node count
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Getter for number of quiescence positions visited by the last search, included in node count.
+	 *
+	 * @return quiescence node count
+	 */
+	public long getQuiescenceNodes() {
+		return quiescenceNodes;
+	}
+
+	/**
+	 * Getter for pawn hash table, kept between searches.
+	 *
+	 * @return pawn structure cache of this search
+	 */
+	public PawnHashTable getPawnTable() {
+		return pawnTable;
+	}
+
+	/**
+	 * Getter for number of beta cutoffs below the root in the last search.
+	 *
+	 * @return cutoff count
+	 */
+	public long getCutoffs() {
+		return cutoffs;
+	}
+
+	/**
+	 * Getter for number of beta cutoffs caused by the first move searched.
+	 *
+	 * @return first move cutoff count
+	 */
+	public long getFirstMoveCutoffs() {
+		return firstMoveCutoffs;
+	}
+
+	/**
+	 * Getter for move generator calls in the last search, captures only ones included.
+	 *
+	 * @return call count
+	 */
+	public long getMoveGenerations() {
+		return moveGenerations;
+	}
+
+	/**
+	 * Getter for evaluation calls in the last search.
+	 *
+	 * @return call count
+	 */
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * Getter for pawn hash table lookups of the last search that found their pawn key.
+	 *
+	 * @return hit count
+	 */
+	public long getPawnHits() {
+		return pawnTable.getHits() - pawnHitsBefore;
+	}
+
+	/**
+	 * Getter for pawn hash table lookups of the last search that ran the pawn analysis.
+	 *
+	 * @return miss count
+	 */
+	public long getPawnMisses() {
+		return pawnTable.getMisses() - pawnMissesBefore;
+	}
+
+	/**
+	 * Getter for positions of the last search scored from the bitbases instead of searched.
+	 *
+	 * @return bitbase hit count
+	 */
+	public long getBitbaseHits() {
+		return bitbaseHits;
+	}
+
+	/**
+	 * Getter for share of cutoffs caused by the first move, which good ordering keeps close to 1.
+	 *
+	 * @return first move cutoff rate, 0 if there were no cutoffs
+	 */
+	public double getFirstMoveCutoffRate() {
+		return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+	}
+
+	/**
+	 * Getter for depth of the last fully searched iteration.
+	 *
+	 * @return depth in plies
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Getter for best move of the last search.
+	 *
+	 * @return packed move
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * Getter for score of the last search's best move.
+	 *
+	 * @return score from the searching side's point of view
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+
+	/**
+	 * Copies principal variation of the last search's deepest completed iteration.
+	 *
+	 * @param line - buffer of at least MAX_PLY entries
+	 * @return number of moves copied
+	 */
+	public int getPrincipalVariation(int[] line) {
+		System.arraycopy(bestLine, 0, line, 0, bestLineLength);
+		return bestLineLength;
+	}
+}
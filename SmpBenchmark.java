@@ -0,0 +1,133 @@
+package main;
+
+/**
+ * Measures how much faster LazySmp reaches a fixed depth as threads are added.
+ * <p>
+ * Each thread count searches the same positions to the same depth from an empty
+ * transposition table, after one untimed single-thread pass to warm up the JIT.
+ * Speedup is single-thread time divided by the time taken. The share of the main
+ * search's cutoffs made by the first move shows how well moves are ordered.
+ * <p>
+ * Usage: SmpBenchmark [max threads] [depth]
+ *
+ * @author John Vnek
+ */
+public class SmpBenchmark {
+
+	private static final int DEFAULT_DEPTH = 6;
+	private static final int HASH_MB = 64;
+
+	/**
+	 * Positions searched, as moves played from the starting board.
+	 */
+	private static final String[] POSITIONS = {
+		"",
+		"e2e4 e7e5 g1f3 b8c6 f1c4 g8f6",
+		"d2d4 d7d5 c2c4 e7e6 b1c3 g8f6 c1g5 f8e7",
+		"e2e4 c7c5 g1f3 d7d6 d2d4 c5d4 f3d4 g8f6 b1c3 a7a6",
+		"c2c4 e7e5 b1c3 g8f6 g2g3 d7d5 c4d5 f6d5 f1g2 d5b6",
+		"e2e4 e7e6 d2d4 d7d5 b1c3 f8b4 e4e5 c7c5 a2a3 b4c3 b2c3",
+	};
+
+	/**
+	 * SmpBenchmark is only run through main and is never instantiated.
+	 */
+	private SmpBenchmark() {
+	}
+
+	/**
+	 * Runs benchmark with 1, 2, 4 ... up to max threads and prints time to depth.
+	 *
+	 * @param args - optional max threads and depth
+	 */
+	public static void main(String[] args) {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEPTH;
+		Board[] boards = new Board[POSITIONS.length];
+		for (int i = 0; i < POSITIONS.length; i++) {
+			boards[i] = play(POSITIONS[i]);
+		}
+
+		TranspositionTable table = new TranspositionTable(HASH_MB);
+		System.out.printf("%d positions, depth %d%n", boards.length, depth);
+		System.out.printf("%8s %10s %14s %12s %8s %10s%n", "threads", "ms", "nodes", "nps", "speedup", "first cut");
+		long[] stats = new long[3];
+		timeToDepth(boards, table, 1, depth, stats);
+		
+		long baseline = 0;
+		for (int threads = 1; threads <= maxThreads; threads = nextThreads(threads, maxThreads)) {
+			long time = timeToDepth(boards, table, threads, depth, stats);
+			if (threads == 1) {
+				baseline = time;
+			}
+			long nps = stats[0] * 1000000000L / Math.max(1, time);
+			double firstCut = 100.0 * stats[2] / Math.max(1, stats[1]);
+			System.out.printf("%8d %10d %14d %12d %8.2f %9.1f%%%n", threads, time / 1000000, stats[0], nps, (double) baseline / time, firstCut);
+		}
+	}
+
+	/**
+	 * Gets next thread count to measure, doubling up to the maximum.
+	 *
+	 * @param threads - current thread count
+	 * @param maxThreads - largest thread count
+	 * @return next thread count, greater than max threads when done
+	 */
+	private static int nextThreads(int threads, int maxThreads) {
+		return threads < maxThreads && threads * 2 > maxThreads ? maxThreads : threads * 2;
+	}
+
+	/**
+	 * Searches every position to depth with given thread count.
+	 *
+	 * @param boards - positions to search
+	 * @param table - transposition table, cleared before each position
+	 * @param threads - number of search threads
+	 * @param depth - depth to reach
+	 * @param stats - receives total nodes, then the main search's cutoffs and first move cutoffs
+	 * @return total nanoseconds taken
+	 */
+	private static long timeToDepth(Board[] boards, TranspositionTable table, int threads, int depth, long[] stats) {
+		LazySmp smp = new LazySmp(table, threads);
+		TimeManager time = new TimeManager();
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		long total = 0;
+		stats[0] = 0;
+		stats[1] = 0;
+		stats[2] = 0;
+		for (int i = 0; i < boards.length; i++) {
+			int count = MoveGenerator.generateLegal(boards[i], moves);
+			table.clear();
+			time.startInfinite();
+			long start = System.nanoTime();
+			smp.search(boards[i], moves, count, depth, time);
+			total += System.nanoTime() - start;
+			stats[0] += smp.getNodes();
+			stats[1] += smp.getMainSearch().getCutoffs();
+			stats[2] += smp.getMainSearch().getFirstMoveCutoffs();
+		}
+		smp.shutdown();
+		return total;
+	}
+
+	/**
+	 * Plays moves from the standard starting position.
+	 *
+	 * @param moves - moves in coordinate notation separated by spaces
+	 * @return board after the moves
+	 */
+	private static Board play(String moves) {
+		Board board = Board.fromFen(Board.STARTING_FEN);
+		for (String text : moves.trim().split("\\s+")) {
+			if (text.isEmpty()) {
+				continue;
+			}
+			int move = MoveGenerator.parse(board, text);
+			if (move == PackedMove.NO_MOVE) {
+				throw new IllegalArgumentException("Illegal move in benchmark position: " + text);
+			}
+			board.makeMove(move);
+		}
+		return board;
+	}
+}
@@ -10,6 +10,7 @@ public class Spot {
 	private int x;
 	private int y;
 	private Piece piece;
+	private Board board;
 	
 	/**
 	 * Constructor for Spot.
@@ -24,6 +25,22 @@ public class Spot {
 		this.piece = piece;
 	}
 	
+	/**
+	 * Constructor for Spot that views a square of a board.
+	 * <p>
+	 * The board's bitboards are authoritative, so getPiece and setPiece
+	 * read from and write through to the board instead of a local field.
+	 * 
+	 * @param x - x coordinate of Spot
+	 * @param y - y coordinate of Spot
+	 * @param board - board owning this Spot
+	 */
+	Spot(int x, int y, Board board) {
+		this.x = x;
+		this.y = y;
+		this.board = board;
+	}
+	
 	/**
 	 * Getter for x coordinate.
 	 * 
@@ -48,6 +65,9 @@ public class Spot {
 	 * @return piece
 	 */
 	public Piece getPiece() {
+		if (board != null) {
+			return board.getPiece(x, y);
+		}
 		return piece;
 	}
 	
@@ -57,7 +77,11 @@ public class Spot {
 	 * @param piece - new piece at Spot
 	 */
 	public void setPiece(Piece piece) {
-		this.piece = piece;
+		if (board != null) {
+			board.setPiece(x, y, piece);
+		} else {
+			this.piece = piece;
+		}
 	}
 	
 	/**
@@ -0,0 +1,158 @@
+package main;
+
+/**
+ * Decides how long a search may run and tells it when to stop.
+ * <p>
+ * A search gets a soft deadline, after which no new iteration is started,
+ * and a hard deadline, at which the running iteration is abandoned.
+ * The search polls the clock every CHECK_INTERVAL nodes, so stopping costs
+ * little and happens within a fraction of a millisecond of the deadline.
+ * Another thread can stop the search at any time with stop, or move the deadlines
+ * while it runs, as a ponder hit does. A node limit stops the search once
+ * the main search thread has searched that many nodes.
+ *
+ * @author John Vnek
+ */
+public class TimeManager {
+
+	public static final int CHECK_INTERVAL = 1024;
+	public static final long MOVE_OVERHEAD_MS = 10;
+
+	private static final int DEFAULT_MOVES_TO_GO = 30;
+	private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+	private volatile long startTime;
+	private volatile long softDeadline;
+	private volatile long hardDeadline;
+	private volatile boolean stopped;
+	private long nodeLimit;
+
+	/**
+	 * Constructor for TimeManager, with no deadline set.
+	 */
+	public TimeManager() {
+		startInfinite();
+	}
+
+	/**
+	 * Starts timing a search with no deadline, which runs until its depth limit or stop.
+	 */
+	public void startInfinite() {
+		this.startTime = System.nanoTime();
+		this.softDeadline = NO_DEADLINE;
+		this.hardDeadline = NO_DEADLINE;
+		this.stopped = false;
+	}
+
+	/**
+	 * Starts timing a search that must move within a fixed budget.
+	 * <p>
+	 * New iterations are not started after half the budget, since the next one
+	 * would usually take longer than everything searched so far.
+	 *
+	 * @param moveTime - milliseconds the move may take
+	 */
+	public void startMoveTime(long moveTime) {
+		long budget = Math.max(1, moveTime - MOVE_OVERHEAD_MS);
+		start(budget / 2, budget);
+	}
+
+	/**
+	 * Starts timing a search that plays on a clock.
+	 * <p>
+	 * Spends an even share of the remaining time over the moves still to play plus
+	 * most of the increment, never more than what is left on the clock.
+	 *
+	 * @param remaining - milliseconds left on the clock
+	 * @param increment - milliseconds added after each move
+	 * @param movesToGo - moves left until the next time control, 0 if unknown
+	 */
+	public void startClock(long remaining, long increment, int movesToGo) {
+		int moves = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+		long available = Math.max(1, remaining - MOVE_OVERHEAD_MS);
+		long target = Math.min(available / moves + increment * 3 / 4, available);
+		long maximum = Math.min(target * 3, available / 2 + increment);
+		start(Math.max(1, target / 2), Math.max(1, Math.min(maximum, available)));
+	}
+
+	/**
+	 * Sets deadlines relative to now.
+	 *
+	 * @param soft - milliseconds after which no new iteration starts
+	 * @param hard - milliseconds after which the search is abandoned
+	 */
+	private void start(long soft, long hard) {
+		this.startTime = System.nanoTime();
+		this.softDeadline = startTime + soft * 1000000L;
+		this.hardDeadline = startTime + hard * 1000000L;
+		this.stopped = false;
+	}
+
+	/**
+	 * Stops the search as soon as it next checks, from any thread.
+	 */
+	public void stop() {
+		this.stopped = true;
+	}
+
+	/**
+	 * Setter for node limit, which stays set across searches until changed.
+	 *
+	 * @param nodeLimit - nodes the main search thread may visit, 0 for no limit
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = Math.max(0, nodeLimit);
+	}
+
+	/**
+	 * Checks if search has been stopped, reading the clock and the node limit.
+	 *
+	 * @param nodes - nodes searched so far by the main search thread
+	 * @return true if search should be abandoned, false if not
+	 */
+	public boolean checkLimits(long nodes) {
+		if (!stopped && nodeLimit > 0 && nodes >= nodeLimit) {
+			stopped = true;
+		}
+		return checkTime();
+	}
+
+	/**
+	 * Checks if search has been stopped, reading the clock against the hard deadline.
+	 *
+	 * @return true if search should be abandoned, false if not
+	 */
+	public boolean checkTime() {
+		if (!stopped && hardDeadline != NO_DEADLINE && System.nanoTime() >= hardDeadline) {
+			stopped = true;
+		}
+		return stopped;
+	}
+
+	/**
+	 * Checks if search has been stopped without reading the clock.
+	 *
+	 * @return true if stopped, false if not
+	 */
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * Checks if there is time left to start another iteration.
+	 *
+	 * @return true if before soft deadline and not stopped, false otherwise
+	 */
+	public boolean canStartIteration() {
+		return !stopped && (softDeadline == NO_DEADLINE || System.nanoTime() < softDeadline);
+	}
+
+	/**
+	 * Getter for time since search started.
+	 *
+	 * @return elapsed milliseconds
+	 */
+	public long getElapsed() {
+		return (System.nanoTime() - startTime) / 1000000L;
+	}
+}
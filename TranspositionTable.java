@@ -0,0 +1,254 @@
+package main;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Fixed size hash table of previously scored positions.
+ * <p>
+ * Each slot is two longs: the position key XORed with the data, and the data itself.
+ * Data packs the best move, score, depth, bound type and search age into one long.
+ * Reads and writes take no locks, so several search threads can share one table.
+ * A slot torn by two threads writing at once no longer XORs back to its key,
+ * so it reads as a miss instead of returning mixed data.
+ * <p>
+ * A slot is replaced when it holds the same position, was written by an older search,
+ * or was searched no deeper than the new entry.
+ *
+ * @author John Vnek
+ */
+public class TranspositionTable {
+
+	public static final int EXACT = 1;
+	public static final int LOWER = 2;
+	public static final int UPPER = 3;
+
+	private static final int BYTES_PER_ENTRY = 16;
+	private static final int MAX_AGE = 63;
+
+	private long[] slots;
+	private int mask;
+	private int age;
+	private LongAdder probes;
+	private LongAdder hits;
+
+	/**
+	 * Constructor for TranspositionTable.
+	 *
+	 * @param megabytes - memory budget, rounded down to a power of two number of entries
+	 */
+	public TranspositionTable(int megabytes) {
+		this.probes = new LongAdder();
+		this.hits = new LongAdder();
+		resize(megabytes);
+	}
+
+	/**
+	 * Reallocates table for new memory budget, dropping all entries.
+	 * <p>
+	 * Emits a TableResize event, timing the allocation, when that event is enabled.
+	 *
+	 * @param megabytes - memory budget, at least 1
+	 */
+	public void resize(int megabytes) {
+		long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+		long entries = Long.highestOneBit(bytes / BYTES_PER_ENTRY);
+		entries = Math.min(entries, 1L << 28);
+
+		EngineEvents.TableResize event = null;
+		if (EngineEvents.isEnabled(EngineEvents.TableResize.class)) {
+			event = new EngineEvents.TableResize();
+			event.begin();
+		}
+		int oldEntries = slots == null ? 0 : mask + 1;
+		this.slots = new long[(int) entries * 2];
+		this.mask = (int) entries - 1;
+		this.age = 0;
+		probes.reset();
+		hits.reset();
+
+		if (event != null) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.megabytes = megabytes;
+				event.oldEntries = oldEntries;
+				event.newEntries = (int) entries;
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Empties table without reallocating it.
+	 */
+	public void clear() {
+		Arrays.fill(slots, 0);
+		age = 0;
+		probes.reset();
+		hits.reset();
+	}
+
+	/**
+	 * Marks start of a new search so entries from earlier searches age out first.
+	 */
+	public void newSearch() {
+		age = (age + 1) & MAX_AGE;
+	}
+
+	/**
+	 * Looks up data stored for position.
+	 *
+	 * @param key - Zobrist key of position
+	 * @return packed data, 0 if position not stored
+	 */
+	public long probe(long key) {
+		long[] table = slots;
+		int index = ((int) key & mask) << 1;
+		long data = table[index + 1];
+		long check = table[index];
+
+		probes.increment();
+		if (data != 0 && (check ^ data) == key) {
+			hits.increment();
+			return data;
+		}
+		return 0;
+	}
+
+	/**
+	 * Stores data for position, subject to the replacement scheme.
+	 *
+	 * @param key - Zobrist key of position
+	 * @param depth - depth position was searched to
+	 * @param bound - EXACT, LOWER or UPPER
+	 * @param score - score of position, clamped to 16 bits
+	 * @param move - best move found, 0 if none
+	 */
+	public void store(long key, int depth, int bound, int score, int move) {
+		long[] table = slots;
+		int index = ((int) key & mask) << 1;
+		long oldData = table[index + 1];
+
+		if (oldData != 0 && (table[index] ^ oldData) != key
+				&& age(oldData) == age && depth(oldData) > depth) {
+			return;
+		}
+
+		if (move == 0 && oldData != 0 && (table[index] ^ oldData) == key) {
+			move = move(oldData);
+		}
+
+		long data = pack(depth, bound, score, move, age);
+		table[index] = key ^ data;
+		table[index + 1] = data;
+	}
+
+	/**
+	 * Packs entry fields into one long.
+	 * <p>
+	 * Bits 0-31 move, 32-47 score, 48-55 depth, 56-57 bound, 58-63 age.
+	 *
+	 * @param depth - search depth
+	 * @param bound - bound type
+	 * @param score - position score
+	 * @param move - best move
+	 * @param age - search age
+	 * @return packed data
+	 */
+	private static long pack(int depth, int bound, int score, int move, int age) {
+		score = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score));
+		depth = Math.max(0, Math.min(255, depth));
+		return (move & 0xFFFFFFFFL)
+				| ((long) (score & 0xFFFF) << 32)
+				| ((long) depth << 48)
+				| ((long) bound << 56)
+				| ((long) age << 58);
+	}
+
+	/**
+	 * Getter for move stored in packed data.
+	 *
+	 * @param data - packed data from probe
+	 * @return best move
+	 */
+	public static int move(long data) {
+		return (int) data;
+	}
+
+	/**
+	 * Getter for score stored in packed data.
+	 *
+	 * @param data - packed data from probe
+	 * @return score
+	 */
+	public static int score(long data) {
+		return (short) (data >>> 32);
+	}
+
+	/**
+	 * Getter for depth stored in packed data.
+	 *
+	 * @param data - packed data from probe
+	 * @return search depth
+	 */
+	public static int depth(long data) {
+		return (int) (data >>> 48) & 0xFF;
+	}
+
+	/**
+	 * Getter for bound type stored in packed data.
+	 *
+	 * @param data - packed data from probe
+	 * @return EXACT, LOWER or UPPER
+	 */
+	public static int bound(long data) {
+		return (int) (data >>> 56) & 3;
+	}
+
+	/**
+	 * Getter for search age stored in packed data.
+	 *
+	 * @param data - packed data from probe
+	 * @return age
+	 */
+	private static int age(long data) {
+		return (int) (data >>> 58);
+	}
+
+	/**
+	 * Getter for number of entries table holds.
+	 *
+	 * @return entry count
+	 */
+	public int getEntries() {
+		return mask + 1;
+	}
+
+	/**
+	 * Getter for number of probes since last resize or clear.
+	 *
+	 * @return probe count
+	 */
+	public long getProbes() {
+		return probes.sum();
+	}
+
+	/**
+	 * Getter for number of probes that found their position.
+	 *
+	 * @return hit count
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Getter for fraction of probes that found their position.
+	 *
+	 * @return hit rate between 0 and 1
+	 */
+	public double getHitRate() {
+		long total = probes.sum();
+		return total == 0 ? 0 : (double) hits.sum() / total;
+	}
+}
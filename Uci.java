@@ -0,0 +1,477 @@
+package main;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Universal Chess Interface front end, so the engine can be driven by GUIs and match harnesses.
+ * <p>
+ * Commands are read line by line on the calling thread, while each search runs on
+ * a worker thread. That way stop, ponderhit and isready are answered right away.
+ * The time limits start on the reading thread when go arrives, before the worker
+ * starts, so a stop that comes straight after go is never lost. While pondering or
+ * searching without limit, bestmove waits for ponderhit or stop, as the protocol requires.
+ * An info line is printed after every completed iteration and once more with the totals
+ * before bestmove. With no legal move the reply is bestmove 0000.
+ * <p>
+ * Supported commands: uci, isready, ucinewgame, setoption (Hash, Threads, Ponder,
+ * BookFile, Bitbases), position (startpos or fen, with moves), go (depth, nodes,
+ * movetime, wtime, btime, winc, binc, movestogo, infinite, ponder), stop, ponderhit and quit.
+ *
+ * @author John Vnek
+ */
+public class Uci {
+
+	public static final String ENGINE_NAME = "Chess Bot";
+	public static final String ENGINE_AUTHOR = "John Vnek";
+
+	private static final int MAX_HASH_MB = 4096;
+
+	private BufferedReader in;
+	private PrintStream out;
+	private ComputerPlayer player;
+	private Board board;
+	private ExecutorService worker;
+	private Future<?> searching;
+	private boolean holdBestMove;
+	private boolean infinite;
+
+	/**
+	 * Constructor for Uci.
+	 *
+	 * @param in - stream commands are read from
+	 * @param out - stream replies are written to
+	 */
+	public Uci(InputStream in, PrintStream out) {
+		this.in = new BufferedReader(new InputStreamReader(in));
+		this.out = out;
+		this.player = new ComputerPlayer(false, ComputerPlayer.DEFAULT_HASH_MB);
+		this.board = Board.fromFen(Board.STARTING_FEN);
+		this.worker = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "uci-search");
+			thread.setDaemon(true);
+			return thread;
+		});
+		player.setBitbases(Bitbases.getShared());
+		player.setIterationListener(this::reportIteration);
+		player.getStats().register("uci");
+	}
+
+	/**
+	 * Reads and answers commands until quit or end of input.
+	 *
+	 * @throws IOException if reading commands fails
+	 */
+	public void run() throws IOException {
+		String line;
+		while ((line = in.readLine()) != null) {
+			if (!handle(line.trim())) {
+				break;
+			}
+		}
+		stop();
+		waitForSearch();
+		worker.shutdownNow();
+		player.getStats().unregister();
+	}
+
+	/**
+	 * Answers one command.
+	 *
+	 * @param line - command line
+	 * @return false if the command was quit, true otherwise
+	 */
+	public boolean handle(String line) {
+		if (line.isEmpty()) {
+			return true;
+		}
+		String[] tokens = line.split("\\s+");
+		switch (tokens[0]) {
+		case "uci":
+			out.println("id name " + ENGINE_NAME);
+			out.println("id author " + ENGINE_AUTHOR);
+			out.println("option name Hash type spin default " + ComputerPlayer.DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+			out.println("option name Threads type spin default 1 min 1 max " + LazySmp.MAX_THREADS);
+			out.println("option name Ponder type check default false");
+			out.println("option name BookFile type string default <empty>");
+			out.println("option name Bitbases type check default true");
+			out.println("uciok");
+			break;
+		case "isready":
+			out.println("readyok");
+			break;
+		case "ucinewgame":
+			stop();
+			waitForSearch();
+			player.clearTables();
+			board = Board.fromFen(Board.STARTING_FEN);
+			break;
+		case "setoption":
+			setOption(tokens);
+			break;
+		case "position":
+			waitForSearch();
+			position(tokens);
+			break;
+		case "go":
+			waitForSearch();
+			go(tokens);
+			break;
+		case "stop":
+			stop();
+			break;
+		case "ponderhit":
+			ponderHit();
+			break;
+		case "quit":
+			return false;
+		default:
+			out.println("info string unknown command " + tokens[0]);
+			break;
+		}
+		return true;
+	}
+
+	/**
+	 * Sets up position from startpos or a FEN, then plays the moves that follow.
+	 *
+	 * @param tokens - command split on whitespace
+	 */
+	private void position(String[] tokens) {
+		int index = 1;
+		Board next;
+		try {
+			if (index < tokens.length && tokens[index].equals("startpos")) {
+				next = Board.fromFen(Board.STARTING_FEN);
+				index++;
+			} else if (index < tokens.length && tokens[index].equals("fen")) {
+				StringBuilder fen = new StringBuilder();
+				for (index++; index < tokens.length && !tokens[index].equals("moves"); index++) {
+					fen.append(tokens[index]).append(' ');
+				}
+				next = Board.fromFen(fen.toString().trim());
+			} else {
+				out.println("info string position needs startpos or fen");
+				return;
+			}
+		} catch (IllegalArgumentException e) {
+			out.println("info string " + e.getMessage());
+			return;
+		}
+
+		if (index < tokens.length && tokens[index].equals("moves")) {
+			for (index++; index < tokens.length; index++) {
+				int move = MoveGenerator.parse(next, tokens[index]);
+				if (move == PackedMove.NO_MOVE) {
+					out.println("info string illegal move " + tokens[index]);
+					break;
+				}
+				next.makeMove(move);
+			}
+		}
+		board = next;
+	}
+
+	/**
+	 * Starts a search of the current position with the limits given.
+	 *
+	 * @param tokens - command split on whitespace
+	 */
+	private void go(String[] tokens) {
+		boolean white = board.isWhiteToMove();
+		int depth = Search.MAX_PLY;
+		long nodes = 0;
+		long moveTime = 0;
+		long remaining = 0;
+		long increment = 0;
+		int movesToGo = 0;
+		boolean ponder = false;
+		boolean forever = false;
+		for (int i = 1; i < tokens.length; i++) {
+			String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+			switch (tokens[i]) {
+			case "depth":
+				depth = parseInt(value);
+				i++;
+				break;
+			case "nodes":
+				nodes = parseLong(value);
+				i++;
+				break;
+			case "movetime":
+				moveTime = parseLong(value);
+				i++;
+				break;
+			case "wtime":
+				remaining = white ? parseLong(value) : remaining;
+				i++;
+				break;
+			case "btime":
+				remaining = white ? remaining : parseLong(value);
+				i++;
+				break;
+			case "winc":
+				increment = white ? parseLong(value) : increment;
+				i++;
+				break;
+			case "binc":
+				increment = white ? increment : parseLong(value);
+				i++;
+				break;
+			case "movestogo":
+				movesToGo = parseInt(value);
+				i++;
+				break;
+			case "infinite":
+				forever = true;
+				break;
+			case "ponder":
+				ponder = true;
+				break;
+			default:
+				break;
+			}
+		}
+
+		player.setSearchDepth(Math.max(1, depth));
+		player.setNodeLimit(nodes);
+		player.setMoveTime(moveTime);
+		player.setClock(remaining, increment, movesToGo);
+		player.setPondering(ponder);
+		synchronized (this) {
+			infinite = forever;
+			holdBestMove = ponder || forever;
+		}
+		if (forever) {
+			player.setMoveTime(0);
+			player.setClock(0, 0, 0);
+		}
+		player.startClock();
+
+		Board searchBoard = new Board(board);
+		searching = worker.submit(() -> search(searchBoard));
+	}
+
+	/**
+	 * Searches on the worker thread and reports the result.
+	 *
+	 * @param searchBoard - copy of the position to search
+	 */
+	private void search(Board searchBoard) {
+		int move = player.think(searchBoard);
+		synchronized (this) {
+			while (holdBestMove) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		if (move == PackedMove.NO_MOVE) {
+			long king = searchBoard.getPieces(Piece.KING, searchBoard.isWhiteToMove());
+			boolean mated = king != 0 && searchBoard.isAttacked(Bitboards.first(king), !searchBoard.isWhiteToMove());
+			out.println("info depth 0 score " + (mated ? "mate 0" : "cp 0"));
+			out.println("bestmove 0000");
+			return;
+		}
+		if (player.isBookMove()) {
+			out.println("info string book move");
+			out.println("bestmove " + PackedMove.toString(move));
+			return;
+		}
+		reportInfo();
+
+		int[] line = new int[Search.MAX_PLY];
+		int length = player.getSearch().getPrincipalVariation(line);
+		String reply = "bestmove " + PackedMove.toString(move);
+		if (length > 1 && line[0] == move) {
+			reply += " ponder " + PackedMove.toString(line[1]);
+		}
+		out.println(reply);
+	}
+
+	/**
+	 * Prints info line with depth, score, nodes, speed and principal variation of the last search.
+	 */
+	private void reportInfo() {
+		EngineStats stats = player.getStats().snapshot();
+		printInfo(stats.getDepth(), player.getSearch(), stats.getNodes(), stats.getNodesPerSecond(),
+				stats.getTurnNanos() / 1000000L);
+	}
+
+	/**
+	 * Prints info line for an iteration the main search has just completed, while it goes on.
+	 *
+	 * @param search - main search, called back on the worker thread
+	 */
+	private void reportIteration(Search search) {
+		long millis = player.getTimeManager().getElapsed();
+		long nodes = search.getNodes();
+		printInfo(search.getCompletedDepth(), search, nodes, nodes * 1000L / Math.max(1, millis), millis);
+	}
+
+	/**
+	 * Prints info line.
+	 *
+	 * @param depth - depth completed
+	 * @param search - main search, whose best score and principal variation are printed
+	 * @param nodes - nodes searched
+	 * @param nps - nodes searched per second
+	 * @param millis - time searched in milliseconds
+	 */
+	private void printInfo(int depth, Search search, long nodes, long nps, long millis) {
+		StringBuilder info = new StringBuilder("info depth ").append(depth);
+		int score = search.getBestScore();
+		if (Math.abs(score) >= Search.MATE - Search.MAX_PLY) {
+			int plies = Search.MATE - Math.abs(score);
+			info.append(" score mate ").append(score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2);
+		} else {
+			info.append(" score cp ").append(score);
+		}
+		info.append(" nodes ").append(nodes);
+		info.append(" nps ").append(nps);
+		info.append(" time ").append(millis);
+
+		int[] line = new int[Search.MAX_PLY];
+		int length = search.getPrincipalVariation(line);
+		if (length > 0) {
+			info.append(" pv");
+			for (int i = 0; i < length; i++) {
+				info.append(' ').append(PackedMove.toString(line[i]));
+			}
+		}
+		out.println(info);
+	}
+
+	/**
+	 * Stops the running search, which then reports its best move.
+	 */
+	private void stop() {
+		synchronized (this) {
+			player.setPondering(false);
+			holdBestMove = false;
+			notifyAll();
+		}
+		player.stop();
+	}
+
+	/**
+	 * Tells the search that the opponent played the move it pondered on, so it now runs on the clock.
+	 */
+	private void ponderHit() {
+		synchronized (this) {
+			player.ponderHit();
+			holdBestMove = infinite;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Waits for the running search, if any, to report its best move.
+	 */
+	private void waitForSearch() {
+		if (searching == null) {
+			return;
+		}
+		try {
+			searching.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Search failed", e.getCause());
+		}
+		searching = null;
+	}
+
+	/**
+	 * Applies option, waiting for any search to finish first.
+	 *
+	 * @param tokens - command split on whitespace, as in setoption name Hash value 64
+	 */
+	private void setOption(String[] tokens) {
+		StringBuilder name = new StringBuilder();
+		String value = "";
+		int i = 1;
+		if (i < tokens.length && tokens[i].equals("name")) {
+			for (i++; i < tokens.length && !tokens[i].equals("value"); i++) {
+				name.append(name.length() == 0 ? "" : " ").append(tokens[i]);
+			}
+		}
+		if (i + 1 < tokens.length) {
+			value = String.join(" ", Arrays.copyOfRange(tokens, i + 1, tokens.length));
+		}
+
+		waitForSearch();
+		switch (name.toString().toLowerCase()) {
+		case "hash":
+			player.setHashSize(Math.max(1, Math.min(parseInt(value), MAX_HASH_MB)));
+			break;
+		case "threads":
+			player.setThreads(Math.max(1, Math.min(parseInt(value), LazySmp.MAX_THREADS)));
+			break;
+		case "ponder":
+			break;
+		case "bookfile":
+			setBook(value);
+			break;
+		case "bitbases":
+			player.setBitbases(value.equalsIgnoreCase("true") ? Bitbases.getShared() : null);
+			break;
+		default:
+			out.println("info string unknown option " + name);
+			break;
+		}
+	}
+
+	/**
+	 * Opens opening book for the player, or drops the book if no file is named.
+	 *
+	 * @param file - book file, empty or &lt;empty&gt; for none
+	 */
+	private void setBook(String file) {
+		if (file.isEmpty() || file.equals("<empty>")) {
+			player.setBook(null);
+			return;
+		}
+		try {
+			OpeningBook book = new OpeningBook(Paths.get(file));
+			player.setBook(book);
+			out.println("info string book " + file + " with " + book.getEntries() + " entries");
+		} catch (IOException e) {
+			player.setBook(null);
+			out.println("info string cannot open book " + file + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads int, treating a malformed value as 0.
+	 *
+	 * @param value - text of number
+	 * @return number, 0 if not a number
+	 */
+	private static int parseInt(String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Reads long, treating a malformed value as 0.
+	 *
+	 * @param value - text of number
+	 * @return number, 0 if not a number
+	 */
+	private static long parseLong(String value) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+}
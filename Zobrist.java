@@ -0,0 +1,133 @@
+package main;
+
+/**
+ * Random keys used to hash board positions.
+ * <p>
+ * A position's key is the XOR of the keys of every piece on its square,
+ * the castling rights, the en passant file and the side to move.
+ * Keys come from a fixed seed so hashes are the same on every run.
+ *
+ * @author John Vnek
+ */
+public final class Zobrist {
+
+	private static final long[][] PIECES = new long[2 * Piece.NUM_TYPES][64];
+	private static final long[] CASTLING = new long[16];
+	private static final long[] EP_FILE = new long[8];
+	private static final long SIDE;
+	private static final long[][] MOVES = new long[64][64];
+	private static final long[] PROMOTIONS = new long[Piece.NUM_TYPES];
+
+	static {
+		long seed = 0x9E3779B97F4A7C15L;
+		for (int i = 0; i < PIECES.length; i++) {
+			for (int j = 0; j < PIECES[i].length; j++) {
+				seed = next(seed);
+				PIECES[i][j] = mix(seed);
+			}
+		}
+		for (int i = 0; i < CASTLING.length; i++) {
+			seed = next(seed);
+			CASTLING[i] = mix(seed);
+		}
+		for (int i = 0; i < EP_FILE.length; i++) {
+			seed = next(seed);
+			EP_FILE[i] = mix(seed);
+		}
+		seed = next(seed);
+		SIDE = mix(seed);
+		for (int i = 0; i < MOVES.length; i++) {
+			for (int j = 0; j < MOVES[i].length; j++) {
+				seed = next(seed);
+				MOVES[i][j] = mix(seed);
+			}
+		}
+		for (int i = Piece.KNIGHT; i < PROMOTIONS.length; i++) {
+			seed = next(seed);
+			PROMOTIONS[i] = mix(seed);
+		}
+	}
+
+	/**
+	 * Zobrist is a collection of static keys and is never instantiated.
+	 */
+	private Zobrist() {
+	}
+
+	/**
+	 * Getter for key of piece on square.
+	 *
+	 * @param index - bitboard index of piece
+	 * @param square - square index
+	 * @return key
+	 */
+	public static long piece(int index, int square) {
+		return PIECES[index][square];
+	}
+
+	/**
+	 * Getter for key of castling rights.
+	 *
+	 * @param rights - castling rights bit set
+	 * @return key
+	 */
+	public static long castling(int rights) {
+		return CASTLING[rights];
+	}
+
+	/**
+	 * Getter for key of en passant square.
+	 *
+	 * @param square - en passant square, Board.NO_SQUARE if none
+	 * @return key, 0 if no en passant square
+	 */
+	public static long enPassant(int square) {
+		return square == Board.NO_SQUARE ? 0 : EP_FILE[Bitboards.col(square)];
+	}
+
+	/**
+	 * Getter for key XORed in when black is to move.
+	 *
+	 * @return key
+	 */
+	public static long side() {
+		return SIDE;
+	}
+
+	/**
+	 * Getter for key of a move.
+	 * <p>
+	 * XORed into a position key to cache facts about one move from that position.
+	 * Promotions between the same squares get different keys.
+	 *
+	 * @param from - square move starts on
+	 * @param to - square move ends on
+	 * @param promotion - piece type promoted to, 0 if none
+	 * @return key
+	 */
+	public static long move(int from, int to, int promotion) {
+		return MOVES[from][to] ^ PROMOTIONS[promotion];
+	}
+
+	/**
+	 * Advances SplitMix64 state.
+	 *
+	 * @param seed - current state
+	 * @return next state
+	 */
+	private static long next(long seed) {
+		return seed + 0x9E3779B97F4A7C15L;
+	}
+
+	/**
+	 * SplitMix64 output function.
+	 *
+	 * @param z - state
+	 * @return well mixed 64 bit value
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,206 @@
+package main;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH benchmarks of the engine's hot paths on fixed middlegame positions.
+ * <p>
+ * Each benchmark runs one operation over every position and returns a result that
+ * depends on all of the work, so the JIT cannot drop it. Scores are operations per
+ * second. Run with the gc profiler to get bytes allocated per operation
+ * (gc.alloc.rate.norm) and per second (gc.alloc.rate) next to each score:
+ * <pre>
+ * java -jar jmh/target/benchmarks.jar -prof gc
+ * java -jar jmh/target/benchmarks.jar -prof gc EngineBenchmark.turn
+ * </pre>
+ * Every position has black to move, since that is the side ComputerPlayer plays.
+ *
+ * @author John Vnek
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+
+	private static final int TURN_DEPTH = 3;
+	private static final List<String> PIECE_NAMES = Arrays.asList("pawn", "knight", "bishop", "rook", "queen", "king");
+
+	/**
+	 * Middlegame positions every benchmark runs over.
+	 */
+	private static final String[] POSITIONS = {
+		"r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/3P1N2/PPP2PPP/RNBQK2R b KQkq - 0 4",
+		"rnbqkb1r/ppp2ppp/4pn2/3p2B1/2PP4/2N5/PP2PPPP/R2QKBNR b KQkq - 3 4",
+		"rnbqkb1r/1p2pppp/p2p1n2/8/3NP3/2N1B3/PPP2PPP/R2QKB1R b KQkq - 1 6",
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 0 1",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 b - - 0 10",
+	};
+
+	private Board[] boards;
+	private int[][] legalMoves;
+	private int[] legalCounts;
+	private int[] moveBuffer;
+	private Player white;
+	private ComputerPlayer black;
+	private PawnHashTable pawnTable;
+	private List<Move> moveTracker;
+	private List<Piece> piecesCaptured;
+
+	/**
+	 * Piece type checkMove is benchmarked for, one run of it per type.
+	 */
+	@State(Scope.Thread)
+	public static class PieceType {
+
+		@Param({"pawn", "knight", "bishop", "rook", "queen", "king"})
+		public String piece;
+
+		private int type;
+
+		/**
+		 * Turns piece name into its type constant.
+		 */
+		@Setup
+		public void setUp() {
+			type = PIECE_NAMES.indexOf(piece);
+		}
+	}
+
+	/**
+	 * Sets up positions, their legal moves and the players.
+	 */
+	@Setup
+	public void setUp() {
+		this.boards = new Board[POSITIONS.length];
+		this.legalMoves = new int[POSITIONS.length][MoveGenerator.MAX_MOVES];
+		this.legalCounts = new int[POSITIONS.length];
+		for (int i = 0; i < POSITIONS.length; i++) {
+			boards[i] = Board.fromFen(POSITIONS[i]);
+			legalCounts[i] = MoveGenerator.generateLegal(boards[i], legalMoves[i]);
+		}
+		this.moveBuffer = new int[MoveGenerator.MAX_MOVES];
+		this.white = new HumanPlayer();
+		this.black = new ComputerPlayer(white, 1);
+		this.black.setSearchDepth(TURN_DEPTH);
+		this.pawnTable = new PawnHashTable(PawnHashTable.DEFAULT_ENTRIES);
+		this.moveTracker = new ArrayList<>();
+		this.piecesCaptured = new ArrayList<>();
+	}
+
+	/**
+	 * Checks every move of every side to move piece of one type to every square, through Piece.checkMove.
+	 *
+	 * @param pieceType - piece type to check
+	 * @return number of valid moves
+	 */
+	@Benchmark
+	public long checkMove(PieceType pieceType) {
+		long valid = 0;
+		for (Board board : boards) {
+			Player player = board.isWhiteToMove() ? white : black;
+			for (int from = 0; from < 64; from++) {
+				Piece piece = board.getPiece(from);
+				if (piece == null || piece.getType() != pieceType.type || piece.getIsWhite() != player.isWhitePieces()) {
+					continue;
+				}
+				Spot start = board.getSpot(Bitboards.col(from), Bitboards.row(from));
+				for (int to = 0; to < 64; to++) {
+					Spot end = board.getSpot(Bitboards.col(to), Bitboards.row(to));
+					if (piece.checkMove(board, player, start, end)) {
+						valid++;
+					}
+				}
+			}
+		}
+		return valid;
+	}
+
+	/**
+	 * Generates the pseudo-legal moves of every position.
+	 *
+	 * @return number of moves
+	 */
+	@Benchmark
+	public long generate() {
+		long moves = 0;
+		for (Board board : boards) {
+			moves += MoveGenerator.generate(board, moveBuffer);
+		}
+		return moves;
+	}
+
+	/**
+	 * Makes and unmakes every legal move of every position.
+	 *
+	 * @return sum of hashes after each move
+	 */
+	@Benchmark
+	public long makeUnmake() {
+		long hashes = 0;
+		for (int i = 0; i < boards.length; i++) {
+			Board board = boards[i];
+			int[] moves = legalMoves[i];
+			for (int j = 0; j < legalCounts[i]; j++) {
+				board.makeMove(moves[j]);
+				hashes += board.hash();
+				board.unmakeMove();
+			}
+		}
+		return hashes;
+	}
+
+	/**
+	 * Evaluates every position with a pawn hash table.
+	 *
+	 * @return sum of scores
+	 */
+	@Benchmark
+	public long evaluate() {
+		long scores = 0;
+		for (Board board : boards) {
+			scores += Evaluation.evaluate(board, pawnTable);
+		}
+		return scores;
+	}
+
+	/**
+	 * Renders every position with Board.toString.
+	 *
+	 * @return total length of text
+	 */
+	@Benchmark
+	public long boardToString() {
+		long length = 0;
+		for (Board board : boards) {
+			length += board.toString().length();
+		}
+		return length;
+	}
+
+	/**
+	 * Has the computer take a turn in every position, from empty tables.
+	 * <p>
+	 * The move played is taken back afterwards, so every run starts from the same positions.
+	 *
+	 * @return number of moves played
+	 */
+	@Benchmark
+	public long turn() {
+		moveTracker.clear();
+		piecesCaptured.clear();
+		for (Board board : boards) {
+			black.clearTables();
+			black.turn(board, moveTracker, piecesCaptured);
+			board.unmakeMove();
+		}
+		for (Piece piece : piecesCaptured) {
+			piece.setCaptured(false);
+		}
+		return moveTracker.size();
+	}
+}